@@ -1,23 +1,47 @@
 package com.example.expensemanager;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import android.content.Context;
 
-@Database(entities = {Transaction.class}, version = 1)
+@Database(entities = {Transaction.class, MerchantCategory.class}, version = 3)
 public abstract class AppDatabase extends RoomDatabase {
 
     public abstract TransactionDao transactionDao();
 
+    public abstract MerchantCategoryDao merchantCategoryDao();
+
     private static volatile AppDatabase INSTANCE;
 
+    // v2: merchant column on transactions and the merchant_categories table for user corrections
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `transactions` ADD COLUMN `merchant` TEXT");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `merchant_categories` "
+                    + "(`merchant` TEXT NOT NULL, `category` TEXT, PRIMARY KEY(`merchant`))");
+        }
+    };
+
+    // v3: source column, so near-duplicate detection can tell a second source from a second payment
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `transactions` ADD COLUMN `source` TEXT");
+        }
+    };
+
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                             AppDatabase.class, "expense_database")
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
                             .build();
                 }
             }
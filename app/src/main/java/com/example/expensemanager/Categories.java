@@ -0,0 +1,33 @@
+package com.example.expensemanager;
+
+/**
+ * Category labels produced by the model, and the icons shown for them.
+ */
+public final class Categories {
+
+    // Order must match the output indices of the model.
+    public static final String[] ALL = {"Food", "Groceries", "Income", "Shopping", "Spam", "Subscription", "Transfer", "Transport", "Utilities"};
+
+    public static final String SPAM = "Spam";
+
+    private Categories() {
+    }
+
+    public static int getIconForCategory(String category, boolean isDebit) {
+        if (category == null) return isDebit ? R.drawable.ic_debit : R.drawable.ic_credit;
+        switch (category) {
+            case "Food":
+                return R.drawable.ic_food;
+            case "Income":
+                return R.drawable.ic_income;
+            case "Shopping":
+                return R.drawable.ic_shopping;
+            case "Subscription":
+                return R.drawable.ic_subscription;
+            case "Transport":
+                return R.drawable.ic_transport;
+            default:
+                return isDebit ? R.drawable.ic_debit : R.drawable.ic_credit;
+        }
+    }
+}
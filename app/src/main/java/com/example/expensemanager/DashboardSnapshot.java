@@ -0,0 +1,159 @@
+package com.example.expensemanager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the dashboard shows on its first frame: the net spend card, the summary dialog
+ * totals and the first screenful of rows. Saved to a small binary file after each data change
+ * so a cold start can render real data before Room has even opened.
+ */
+public class DashboardSnapshot {
+
+    static final String FILE_NAME = "dashboard_snapshot.bin";
+    static final int FIRST_SCREEN_ROWS = 12;
+
+    private static final int MAGIC = 0x45584453; // "EXDS"
+    private static final int VERSION = 1;
+
+    public final double totalDebit;
+    public final double essentials;
+    public final double nonEssentials;
+    public final double net;
+    public final List<Transaction> firstRows;
+
+    DashboardSnapshot(double totalDebit, double essentials, double nonEssentials, double net, List<Transaction> firstRows) {
+        this.totalDebit = totalDebit;
+        this.essentials = essentials;
+        this.nonEssentials = nonEssentials;
+        this.net = net;
+        this.firstRows = firstRows;
+    }
+
+    /**
+     * Computes every dashboard total in one pass over {@code transactions}, newest first.
+     */
+    public static DashboardSnapshot of(List<Transaction> transactions) {
+        double totalDebit = 0;
+        double essentials = 0;
+        double nonEssentials = 0;
+        double net = 0;
+
+        for (Transaction transaction : transactions) {
+            double amount = transaction.getAmount();
+            net += amount;
+
+            if (amount < 0) { // Only consider debits for spending categories
+                totalDebit += amount;
+                switch (transaction.getCategory()) {
+                    case "Food":
+                    case "Transport":
+                        essentials += amount;
+                        break;
+                    case "Shopping":
+                    case "Subscription":
+                        nonEssentials += amount;
+                        break;
+                }
+            }
+        }
+
+        List<Transaction> firstRows = transactions.size() > FIRST_SCREEN_ROWS
+                ? new ArrayList<>(transactions.subList(0, FIRST_SCREEN_ROWS))
+                : new ArrayList<>(transactions);
+        return new DashboardSnapshot(totalDebit, essentials, nonEssentials, net, firstRows);
+    }
+
+    /**
+     * Reads the snapshot with a single file read, or returns null if there is none or it is unreadable.
+     */
+    public static DashboardSnapshot read(File dir) {
+        File file = new File(dir, FILE_NAME);
+        int length = (int) file.length();
+        if (length <= 0) return null;
+
+        byte[] bytes = new byte[length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < length) {
+                int n = in.read(bytes, read, length - read);
+                if (n < 0) return null;
+                read += n;
+            }
+            return decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the saved snapshot. Writes a temp file and renames it, so a reader never sees half a file.
+     */
+    public void write(File dir) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeDouble(totalDebit);
+        out.writeDouble(essentials);
+        out.writeDouble(nonEssentials);
+        out.writeDouble(net);
+        out.writeInt(firstRows.size());
+        for (Transaction row : firstRows) {
+            out.writeInt(row.getId());
+            out.writeUTF(row.getDescription());
+            out.writeUTF(row.getCategory());
+            out.writeDouble(row.getAmount());
+            out.writeLong(row.getDate());
+            out.writeBoolean(row.getMerchant() != null);
+            if (row.getMerchant() != null) out.writeUTF(row.getMerchant());
+        }
+        out.flush();
+
+        synchronized (DashboardSnapshot.class) {
+            File temp = new File(dir, FILE_NAME + ".tmp");
+            try (FileOutputStream os = new FileOutputStream(temp)) {
+                buffer.writeTo(os);
+            }
+            if (!temp.renameTo(new File(dir, FILE_NAME))) {
+                throw new IOException("Could not replace " + FILE_NAME);
+            }
+        }
+    }
+
+    private static DashboardSnapshot decode(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+        double totalDebit = in.readDouble();
+        double essentials = in.readDouble();
+        double nonEssentials = in.readDouble();
+        double net = in.readDouble();
+
+        int count = in.readInt();
+        if (count < 0 || count > FIRST_SCREEN_ROWS) return null;
+        List<Transaction> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            String description = in.readUTF();
+            String category = in.readUTF();
+            double amount = in.readDouble();
+            long date = in.readLong();
+            String merchant = in.readBoolean() ? in.readUTF() : null;
+
+            // Icons are resolved again rather than stored, since resource IDs change between builds.
+            // Source only matters to dedup, which reads Room, so it is not kept.
+            Transaction row = new Transaction(description, category, amount,
+                    Categories.getIconForCategory(category, amount < 0), date, merchant, null);
+            row.setId(id);
+            rows.add(row);
+        }
+        return new DashboardSnapshot(totalDebit, essentials, nonEssentials, net, rows);
+    }
+}
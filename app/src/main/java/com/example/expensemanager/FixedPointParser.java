@@ -0,0 +1,165 @@
+package com.example.expensemanager;
+
+import java.util.Calendar;
+
+/**
+ * Allocation-free scanners for the numbers found in bank SMS: Indian-grouped amounts
+ * ("1,23,456.78") straight into paise, and dd/MM/yy(yy) dates into days since 1970-01-01.
+ */
+public final class FixedPointParser {
+
+    public static final long INVALID_AMOUNT = -1;
+    public static final int INVALID_DATE = Integer.MIN_VALUE;
+
+    // Keeps paise * 10 + digit from overflowing
+    private static final long MAX_PAISE = Long.MAX_VALUE / 100;
+
+    // Two digit years fall in the 100 years starting 80 years ago, like SimpleDateFormat's "yy"
+    private static final int CENTURY_START_YEAR = Calendar.getInstance().get(Calendar.YEAR) - 80;
+
+    private FixedPointParser() {
+    }
+
+    /**
+     * Parses {@code s[start, end)} of the form {@code [\d,]+\.?\d{0,2}} into paise. Commas are ignored
+     * wherever they appear, matching the old {@code replaceAll(",", "")} behaviour.
+     *
+     * @return the amount in paise, or {@link #INVALID_AMOUNT} if there are no digits or it overflows
+     */
+    public static long parsePaise(CharSequence s, int start, int end) {
+        long rupees = 0;
+        int fraction = 0;
+        int fractionDigits = 0;
+        boolean anyDigit = false;
+        boolean inFraction = false;
+
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (inFraction) {
+                    if (fractionDigits == 2) return INVALID_AMOUNT;
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                } else {
+                    if (rupees > MAX_PAISE) return INVALID_AMOUNT;
+                    rupees = rupees * 10 + (c - '0');
+                }
+            } else if (c == ',' && !inFraction) {
+                // Grouping separator, position does not matter
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                return INVALID_AMOUNT;
+            }
+        }
+
+        if (!anyDigit || rupees > MAX_PAISE) return INVALID_AMOUNT;
+        if (fractionDigits == 1) fraction *= 10;
+        return rupees * 100 + fraction;
+    }
+
+    /**
+     * Finds the first "on dd/MM/yy" style date (case-insensitive, '/' or '-' separators, 2 to 4 year
+     * digits) in {@code text}, the same text the old {@code on\s*(\d{2}[/-]\d{2}[/-]\d{2,4})} regex matched.
+     *
+     * @return the date as days since 1970-01-01, or {@link #INVALID_DATE} if none is found or it is not a real date
+     */
+    public static int findDateAfterOn(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i + 1 < length; i++) {
+            char o = text.charAt(i);
+            char n = text.charAt(i + 1);
+            if ((o != 'o' && o != 'O') || (n != 'n' && n != 'N')) continue;
+
+            int j = i + 2;
+            while (j < length && isRegexSpace(text.charAt(j))) j++;
+
+            if (j + 8 <= length
+                    && isDigit(text.charAt(j)) && isDigit(text.charAt(j + 1)) && isSeparator(text.charAt(j + 2))
+                    && isDigit(text.charAt(j + 3)) && isDigit(text.charAt(j + 4)) && isSeparator(text.charAt(j + 5))
+                    && isDigit(text.charAt(j + 6)) && isDigit(text.charAt(j + 7))) {
+                int end = j + 8;
+                while (end < length && end < j + 10 && isDigit(text.charAt(end))) end++;
+                return parseEpochDay(text, j, end);
+            }
+        }
+        return INVALID_DATE;
+    }
+
+    /**
+     * Parses {@code dd/MM/yy} or {@code dd/MM/yyyy} ('-' also accepted) in {@code s[start, end)}.
+     * Two digit years resolve like SimpleDateFormat's "yy". Out of range days or months are rejected rather than rolled over.
+     *
+     * @return the date as days since 1970-01-01, or {@link #INVALID_DATE}
+     */
+    public static int parseEpochDay(CharSequence s, int start, int end) {
+        int yearDigits = end - start - 6;
+        if (yearDigits != 2 && yearDigits != 4) return INVALID_DATE;
+        if (!isSeparator(s.charAt(start + 2)) || !isSeparator(s.charAt(start + 5))) return INVALID_DATE;
+
+        int day = twoDigits(s, start);
+        int month = twoDigits(s, start + 3);
+        int year = 0;
+        for (int i = start + 6; i < end; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) return INVALID_DATE;
+            year = year * 10 + (c - '0');
+        }
+        if (yearDigits == 2) {
+            year += CENTURY_START_YEAR - CENTURY_START_YEAR % 100;
+            if (year < CENTURY_START_YEAR) year += 100;
+        }
+
+        if (day < 1 || month < 1 || month > 12 || day > daysInMonth(year, month)) return INVALID_DATE;
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date, without Calendar.
+     */
+    static int epochDay(int year, int month, int day) {
+        // Shift the year to start in March so the leap day is last
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int twoDigits(CharSequence s, int at) {
+        char tens = s.charAt(at);
+        char ones = s.charAt(at + 1);
+        if (!isDigit(tens) || !isDigit(ones)) return -1;
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '-';
+    }
+
+    // Same set as the regex \s
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
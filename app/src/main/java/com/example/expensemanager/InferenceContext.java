@@ -0,0 +1,67 @@
+package com.example.expensemanager;
+
+import org.pytorch.IValue;
+import org.pytorch.Module;
+import org.pytorch.Tensor;
+import java.nio.LongBuffer;
+
+/**
+ * Owns the input buffers for one inference worker and reuses them across calls.
+ * The tensors wrap direct buffers, so refilling the buffers in place is enough
+ * for the next forward pass to see the new input. Not thread-safe: give each
+ * worker thread its own instance.
+ */
+public class InferenceContext {
+
+    private static final long[] SHAPE = {1, SimpleTokenizer.MAX_LEN};
+
+    private final LongBuffer inputIds = Tensor.allocateLongBuffer(SimpleTokenizer.MAX_LEN);
+    private final LongBuffer mask = Tensor.allocateLongBuffer(SimpleTokenizer.MAX_LEN);
+    private final IValue inputValue = IValue.from(Tensor.fromBlob(inputIds, SHAPE));
+    private final IValue maskValue = IValue.from(Tensor.fromBlob(mask, SHAPE));
+
+    private final Module model;
+    private final SimpleTokenizer tokenizer;
+
+    public InferenceContext(Module model, SimpleTokenizer tokenizer) {
+        this.model = model;
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * Runs the model on {@code text} and returns the index of the best scoring category.
+     */
+    public int classify(String text) {
+        fillInputs(tokenizer, text, inputIds, mask);
+
+        IValue output = model.forward(inputValue, maskValue);
+        // The output tensor is allocated by the runtime; getDataAsFloatArray is the only public accessor.
+        return argmax(output.toTuple()[0].toTensor().getDataAsFloatArray());
+    }
+
+    /**
+     * Writes the token IDs of {@code text} and the matching attention mask into the given buffers,
+     * without allocating.
+     *
+     * @return the number of real (non-padding) tokens
+     */
+    static int fillInputs(SimpleTokenizer tokenizer, CharSequence text, LongBuffer inputIds, LongBuffer mask) {
+        int tokenCount = tokenizer.tokenize(text, inputIds);
+        for (int i = 0; i < SimpleTokenizer.MAX_LEN; i++) {
+            mask.put(i, i < tokenCount ? 1L : 0L);
+        }
+        return tokenCount;
+    }
+
+    static int argmax(float[] array) {
+        int best = 0;
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] > max) {
+                max = array[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+}
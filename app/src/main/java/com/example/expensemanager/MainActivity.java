@@ -1,30 +1,45 @@
 package com.example.expensemanager;
 
+import android.content.Context;
 import android.content.Intent;
+import android.database.ContentObserver;
 import android.graphics.Typeface;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.provider.Settings;
 import android.text.TextUtils;
+import android.util.Log;
 import android.util.TypedValue;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity implements TransactionAdapter.OnTransactionLongClickListener {
 
+    private static final String TAG = "ExpenseAI";
+    private static final String ENABLED_NOTIFICATION_LISTENERS = "enabled_notification_listeners";
+
     private TextView netSpendAmount;
     private RecyclerView transactionsRecyclerView;
     private TextView noTransactionsText;
@@ -36,12 +51,25 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
     private LinearLayout emptyStateLayout;
     private TransactionAdapter transactionAdapter;
     private AppDatabase db;
-    private List<Transaction> currentTransactions = new ArrayList<>();
+    private DashboardSnapshot dashboard = DashboardSnapshot.of(new ArrayList<>());
+    private boolean fullyDrawnReported;
     private TextView headerTitle;
+    // Startup work that can wait until after the first frame, and snapshot writes
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor();
+    // null until read; cleared whenever the enabled listeners setting changes
+    private Boolean notificationAccess;
+    private final ContentObserver notificationAccessObserver = new ContentObserver(new Handler(Looper.getMainLooper())) {
+        @Override
+        public void onChange(boolean selfChange) {
+            notificationAccess = null;
+            updateUIVisibility();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        Trace.beginSection("MainActivity.inflate");
         setContentView(R.layout.activity_main);
 
         headerTitle = findViewById(R.id.header_title);
@@ -55,12 +83,23 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
         clearButton = findViewById(R.id.clear_button);
         emptyStateLayout = findViewById(R.id.empty_state_layout);
         CardView netSpendCard = findViewById(R.id.net_spend_card);
+        setupRecyclerView();
+        Trace.endSection();
 
-        db = AppDatabase.getDatabase(getApplicationContext());
+        // Critical path: everything the first frame needs, and nothing else
+        Trace.beginSection("MainActivity.snapshot");
+        showSavedSnapshot();
+        setMonthTitle();
+        Trace.endSection();
 
-        setupRecyclerView();
+        Trace.beginSection("MainActivity.observe");
+        db = AppDatabase.getDatabase(getApplicationContext());
         observeTransactions();
-        setMonthTitle();
+        getContentResolver().registerContentObserver(
+                Settings.Secure.getUriFor(ENABLED_NOTIFICATION_LISTENERS), false, notificationAccessObserver);
+        Trace.endSection();
+
+        startDeferredWork();
 
         permissionButton.setOnClickListener(v -> openNotificationSettings());
         scanButton.setOnClickListener(v -> scanNotifications());
@@ -69,6 +108,51 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
         netSpendCard.setOnClickListener(v -> showSummaryDialog());
     }
 
+    @Override
+    protected void onDestroy() {
+        getContentResolver().unregisterContentObserver(notificationAccessObserver);
+        backgroundExecutor.shutdown();
+        super.onDestroy();
+    }
+
+    /**
+     * Work kept off the critical path: decoding the header font and opening the database file
+     * before the live query needs it. Each runs on the background executor under its own trace
+     * section. Tasks there capture locals only, never the activity, so a queued task cannot keep
+     * a destroyed activity alive.
+     */
+    private void startDeferredWork() {
+        // The title is drawn in the fallback font until the decode finishes, then swapped
+        Context appContext = getApplicationContext();
+        WeakReference<TextView> titleRef = new WeakReference<>(headerTitle);
+        backgroundExecutor.execute(() -> {
+            Trace.beginSection("MainActivity.loadFont");
+            try {
+                Typeface typeface = ResourcesCompat.getFont(appContext, R.font.my_custom_font);
+                TextView title = titleRef.get();
+                if (title != null && typeface != null) {
+                    title.post(() -> title.setTypeface(typeface));
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Could not load header font", e);
+            } finally {
+                Trace.endSection();
+            }
+        });
+
+        AppDatabase database = db;
+        backgroundExecutor.execute(() -> {
+            Trace.beginSection("MainActivity.warmUpDatabase");
+            try {
+                database.getOpenHelper().getWritableDatabase();
+            } catch (Exception e) {
+                Log.w(TAG, "Database warm-up failed", e);
+            } finally {
+                Trace.endSection();
+            }
+        });
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
@@ -81,32 +165,54 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
         transactionsRecyclerView.setAdapter(transactionAdapter);
     }
 
+    /**
+     * Renders the snapshot saved after the last data change, so the first frame shows real data
+     * while Room is still opening. The live query replaces it as soon as it arrives.
+     */
+    private void showSavedSnapshot() {
+        DashboardSnapshot snapshot = DashboardSnapshot.read(getFilesDir());
+        if (snapshot != null) {
+            render(snapshot.firstRows, snapshot);
+        }
+    }
+
     private void observeTransactions() {
         db.transactionDao().getAll().observe(this, transactions -> {
-            this.currentTransactions = transactions;
-            transactionAdapter.setTransactions(transactions);
-            updateNetSpend(transactions);
-            updateUIVisibility();
+            DashboardSnapshot snapshot = DashboardSnapshot.of(transactions);
+            render(transactions, snapshot);
+            File filesDir = getFilesDir();
+            backgroundExecutor.execute(() -> {
+                try {
+                    snapshot.write(filesDir);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not save dashboard snapshot", e);
+                }
+            });
         });
     }
 
+    private void render(List<Transaction> transactions, DashboardSnapshot snapshot) {
+        this.dashboard = snapshot;
+        transactionAdapter.setTransactions(transactions);
+        updateNetSpend(snapshot);
+        updateUIVisibility();
+
+        // Time to first meaningful frame, logged by the system as "Fully drawn"
+        if (!fullyDrawnReported) {
+            fullyDrawnReported = true;
+            reportFullyDrawn();
+        }
+    }
+
     private void setMonthTitle() {
         SimpleDateFormat monthFormat = new SimpleDateFormat("MMMM", Locale.getDefault());
         String currentMonth = monthFormat.format(new Date());
         String capitalizedMonth = currentMonth.substring(0, 1).toUpperCase() + currentMonth.substring(1).toLowerCase();
         headerTitle.setText(capitalizedMonth);
-        Typeface typeface = ResourcesCompat.getFont(this, R.font.my_custom_font);
-        headerTitle.setTypeface(typeface);
     }
 
-    private void updateNetSpend(List<Transaction> transactions) {
-        double totalDebit = 0;
-        for (Transaction transaction : transactions) {
-            if (transaction.getAmount() < 0) { // Only sum debit amounts
-                totalDebit += transaction.getAmount();
-            }
-        }
-        netSpendAmount.setText(String.format(Locale.getDefault(), "₹%.2f", Math.abs(totalDebit)));
+    private void updateNetSpend(DashboardSnapshot snapshot) {
+        netSpendAmount.setText(String.format(Locale.getDefault(), "₹%.2f", Math.abs(snapshot.totalDebit)));
     }
 
     private void updateUIVisibility() {
@@ -139,8 +245,15 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
     }
 
     private boolean isNotificationServiceEnabled() {
+        if (notificationAccess == null) {
+            notificationAccess = readNotificationServiceEnabled();
+        }
+        return notificationAccess;
+    }
+
+    private boolean readNotificationServiceEnabled() {
         String pkgName = getPackageName();
-        final String flat = Settings.Secure.getString(getContentResolver(), "enabled_notification_listeners");
+        final String flat = Settings.Secure.getString(getContentResolver(), ENABLED_NOTIFICATION_LISTENERS);
         if (!TextUtils.isEmpty(flat)) {
             final String[] names = flat.split(":");
             for (String name : names) {
@@ -159,31 +272,9 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
         TextView nonEssentialsSpent = dialogView.findViewById(R.id.non_essentials_spent);
         TextView netAmount = dialogView.findViewById(R.id.net_amount);
 
-        double essentials = 0;
-        double nonEssentials = 0;
-        double net = 0;
-
-        for (Transaction transaction : currentTransactions) {
-            double amount = transaction.getAmount();
-            net += amount;
-
-            if (amount < 0) { // Only consider debits for spending categories
-                switch (transaction.getCategory()) {
-                    case "Food":
-                    case "Transport":
-                        essentials += amount;
-                        break;
-                    case "Shopping":
-                    case "Subscription":
-                        nonEssentials += amount;
-                        break;
-                }
-            }
-        }
-
-        essentialsSpent.setText(String.format(Locale.getDefault(), "Spent on Essentials: ₹%.2f", Math.abs(essentials)));
-        nonEssentialsSpent.setText(String.format(Locale.getDefault(), "Spent on Non-Essentials: ₹%.2f", Math.abs(nonEssentials)));
-        netAmount.setText(String.format(Locale.getDefault(), "Net Amount: ₹%.2f", net));
+        essentialsSpent.setText(String.format(Locale.getDefault(), "Spent on Essentials: ₹%.2f", Math.abs(dashboard.essentials)));
+        nonEssentialsSpent.setText(String.format(Locale.getDefault(), "Spent on Non-Essentials: ₹%.2f", Math.abs(dashboard.nonEssentials)));
+        netAmount.setText(String.format(Locale.getDefault(), "Net Amount: ₹%.2f", dashboard.net));
 
         new AlertDialog.Builder(this)
                 .setView(dialogView)
@@ -209,6 +300,48 @@ public class MainActivity extends AppCompatActivity implements TransactionAdapte
 
     @Override
     public void onTransactionLongClicked(Transaction transaction) {
+        new AlertDialog.Builder(this)
+                .setTitle(transaction.getDescription())
+                .setItems(new String[]{"Change Category", "Delete"}, (dialog, which) -> {
+                    if (which == 0) {
+                        showCategoryPicker(transaction);
+                    } else {
+                        confirmDelete(transaction);
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void showCategoryPicker(Transaction transaction) {
+        List<String> choices = new ArrayList<>();
+        for (String category : Categories.ALL) {
+            if (!Categories.SPAM.equals(category)) choices.add(category);
+        }
+        String[] items = choices.toArray(new String[0]);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Change Category")
+                .setSingleChoiceItems(items, choices.indexOf(transaction.getCategory()), (dialog, which) -> {
+                    String category = items[which];
+                    int iconResId = Categories.getIconForCategory(category, transaction.getAmount() < 0);
+                    new Thread(() -> {
+                        db.transactionDao().updateCategory(transaction.getId(), category, iconResId);
+                        // Future transactions with this merchant skip the model and use the user's choice
+                        MerchantMemory.getInstance(db).remember(transaction.getMerchant(), category);
+                    }).start();
+                    dialog.dismiss();
+                    if (MerchantMemory.normalize(transaction.getMerchant()) == null) {
+                        // Nothing to key the choice on, so later messages will still go to the model
+                        Toast.makeText(this, "Updated this transaction only. No merchant was found to remember for next time.",
+                                Toast.LENGTH_LONG).show();
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void confirmDelete(Transaction transaction) {
         new AlertDialog.Builder(this)
                 .setTitle("Delete Transaction")
                 .setMessage("Are you sure you want to delete this transaction?")
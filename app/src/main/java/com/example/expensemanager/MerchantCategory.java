@@ -0,0 +1,32 @@
+package com.example.expensemanager;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * A category the user picked for a merchant, keyed by the normalized counterparty name.
+ */
+@Entity(tableName = "merchant_categories")
+public class MerchantCategory {
+
+    @PrimaryKey
+    @NonNull
+    private final String merchant;
+
+    private final String category;
+
+    public MerchantCategory(@NonNull String merchant, String category) {
+        this.merchant = merchant;
+        this.category = category;
+    }
+
+    @NonNull
+    public String getMerchant() {
+        return merchant;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
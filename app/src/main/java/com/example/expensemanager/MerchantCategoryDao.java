@@ -0,0 +1,18 @@
+package com.example.expensemanager;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface MerchantCategoryDao {
+
+    @Query("SELECT * FROM merchant_categories")
+    List<MerchantCategory> getAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(MerchantCategory merchantCategory);
+}
@@ -0,0 +1,70 @@
+package com.example.expensemanager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of user corrected merchant categories, backed by the merchant_categories table.
+ * Shared between the UI (which records corrections) and the listener service (which consults it
+ * before running the model), so both see a correction immediately.
+ */
+public class MerchantMemory {
+
+    private static volatile MerchantMemory INSTANCE;
+
+    private final MerchantCategoryDao dao;
+    private final Map<String, String> categories = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    MerchantMemory(MerchantCategoryDao dao) {
+        this.dao = dao;
+    }
+
+    public static MerchantMemory getInstance(AppDatabase db) {
+        if (INSTANCE == null) {
+            synchronized (MerchantMemory.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MerchantMemory(db.merchantCategoryDao());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Reads the table into memory. Touches the database, so call it off the main thread.
+     */
+    public synchronized void load() {
+        if (loaded) return;
+        for (MerchantCategory entry : dao.getAll()) {
+            // Corrections recorded while loading win over the stored value
+            categories.putIfAbsent(entry.getMerchant(), entry.getCategory());
+        }
+        loaded = true;
+    }
+
+    /**
+     * Returns the remembered category for {@code merchant}, or null if the user never corrected it.
+     */
+    public String lookup(String merchant) {
+        String key = normalize(merchant);
+        return key != null ? categories.get(key) : null;
+    }
+
+    /**
+     * Remembers {@code category} for {@code merchant}. Touches the database, so call it off the main thread.
+     */
+    public void remember(String merchant, String category) {
+        String key = normalize(merchant);
+        if (key == null) return;
+        categories.put(key, category);
+        dao.upsert(new MerchantCategory(key, category));
+    }
+
+    static String normalize(String merchant) {
+        if (merchant == null) return null;
+        String key = merchant.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.expensemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Recently saved transactions, indexed by signed amount in paise (which also encodes debit vs credit)
+ * and then by date, so the same payment reported by a second source a few seconds later can be
+ * found with one hash lookup and one O(log n) range query. Only a different source can report a
+ * duplicate: two messages from the same source are two payments. Counterparties are compared by
+ * their distinctive words, since each source words them differently.
+ * Not thread-safe: use it from the inference worker only.
+ */
+public class NearDuplicateIndex {
+
+    static final int MAX_ENTRIES = 512;
+    // Without a counterparty on both sides, only near-simultaneous reports count as the same payment
+    static final long UNKNOWN_COUNTERPARTY_WINDOW_MS = 10 * 1000;
+
+    // Words that say nothing about who the counterparty is: channel and reference boilerplate the
+    // generic patterns capture ("ALICE via UPI Ref"), honorifics, and company suffixes ("UBER INDIA")
+    private static final Set<String> NON_DISTINCTIVE = new HashSet<>(Arrays.asList(
+            "a", "an", "the", "and", "of", "to", "from", "at", "on", "in", "by", "for", "via", "is", "your",
+            "upi", "vpa", "imps", "neft", "rtgs", "ref", "refno", "no", "txn", "utr", "ac", "acct", "account",
+            "bank", "card", "payment", "transfer", "credited", "debited", "sent", "paid", "received",
+            "mr", "mrs", "ms", "miss", "dr", "shri", "sri", "smt", "kumari",
+            "india", "pvt", "private", "ltd", "limited", "llp", "inc", "co", "company",
+            "technologies", "services", "solutions", "enterprises", "store", "stores", "retail"));
+
+    private static class Entry {
+        final Set<String> words; // Distinctive words of the counterparty, empty if unknown
+        final String source;
+
+        Entry(Set<String> words, String source) {
+            this.words = words;
+            this.source = source;
+        }
+    }
+
+    private final long windowMs;
+    private final Map<Long, TreeMap<Long, List<Entry>>> byAmount = new HashMap<>();
+    private int size;
+    private long latestDate = Long.MIN_VALUE;
+
+    public NearDuplicateIndex(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Seeds the index from transactions already persisted, so detection survives a service restart.
+     */
+    public void load(List<Transaction> recent) {
+        for (Transaction transaction : recent) {
+            add(transaction.getAmount(), transaction.getDate(), transaction.getMerchant(), transaction.getSource());
+        }
+    }
+
+    /**
+     * Returns true if a transaction with the same amount and direction from a different source,
+     * dated within the window of {@code date}, has a counterparty that plausibly matches {@code merchant}.
+     * If either counterparty is unknown, the two must be dated within {@link #UNKNOWN_COUNTERPARTY_WINDOW_MS}.
+     */
+    public boolean containsNear(double amount, long date, String merchant, String source) {
+        TreeMap<Long, List<Entry>> byDate = byAmount.get(toPaise(amount));
+        if (byDate == null) return false;
+
+        Set<String> words = distinctiveWords(merchant);
+        for (Map.Entry<Long, List<Entry>> sameDate : byDate.subMap(date - windowMs, true, date + windowMs, true).entrySet()) {
+            long gap = Math.abs(sameDate.getKey() - date);
+            for (Entry candidate : sameDate.getValue()) {
+                // Rows saved before sources were recorded count as a different source
+                if (candidate.source != null && candidate.source.equals(source)) continue;
+
+                if (candidate.words.isEmpty() || words.isEmpty()) {
+                    if (gap <= UNKNOWN_COUNTERPARTY_WINDOW_MS) return true;
+                } else if (wordsMatch(candidate.words, words)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void add(double amount, long date, String merchant, String source) {
+        TreeMap<Long, List<Entry>> byDate = byAmount.get(toPaise(amount));
+        if (byDate == null) {
+            byDate = new TreeMap<>();
+            byAmount.put(toPaise(amount), byDate);
+        }
+        List<Entry> entries = byDate.get(date);
+        if (entries == null) {
+            entries = new ArrayList<>(1);
+            byDate.put(date, entries);
+        }
+        entries.add(new Entry(distinctiveWords(merchant), source));
+        latestDate = Math.max(latestDate, date);
+
+        if (++size > MAX_ENTRIES) {
+            evictOlderThan(latestDate - windowMs);
+        }
+    }
+
+    private void evictOlderThan(long cutoff) {
+        for (TreeMap<Long, List<Entry>> byDate : byAmount.values()) {
+            NavigableMap<Long, List<Entry>> stale = byDate.headMap(cutoff, false);
+            for (List<Entry> entries : stale.values()) {
+                size -= entries.size();
+            }
+            stale.clear();
+        }
+        byAmount.values().removeIf(TreeMap::isEmpty);
+    }
+
+    private static long toPaise(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // Sources name the same party differently ("John Doe" vs "Mr John"), so one name may drop words,
+    // but every distinctive word of the shorter name must appear, whole, in the other.
+    // Both sides must be known: callers decide what a missing counterparty means.
+    static boolean counterpartiesMatch(String a, String b) {
+        Set<String> wordsA = distinctiveWords(a);
+        Set<String> wordsB = distinctiveWords(b);
+        return !wordsA.isEmpty() && !wordsB.isEmpty() && wordsMatch(wordsA, wordsB);
+    }
+
+    private static boolean wordsMatch(Set<String> a, Set<String> b) {
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        return larger.containsAll(smaller);
+    }
+
+    static Set<String> distinctiveWords(String counterparty) {
+        String normalized = MerchantMemory.normalize(counterparty);
+        if (normalized == null) return Collections.emptySet();
+
+        Set<String> words = new HashSet<>();
+        for (String word : normalized.split("[^a-z0-9]+")) {
+            // Bare numbers are reference or account digits, which differ per source
+            if (word.isEmpty() || NON_DISTINCTIVE.contains(word) || isDigits(word)) continue;
+            words.add(word);
+        }
+        return words;
+    }
+
+    private static boolean isDigits(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.expensemanager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Drops reposts of the same notification before any parsing happens.
+ * Messaging apps re-post a notification (same key) whenever the conversation is updated,
+ * grouped or re-sorted, typically within seconds. Only a repost whose title and text are exactly
+ * what was last seen for the key, within {@link #REPOST_WINDOW_MS}, is dropped. Anything else is
+ * processed right away: a conversation notification keeps its key for every SMS from that sender,
+ * and banks send identically worded messages for repeat payments.
+ * Remembers at most {@link #MAX_TRACKED} keys, evicting the least recently seen.
+ */
+public class NotificationCoalescer {
+
+    static final long REPOST_WINDOW_MS = 10 * 1000;
+    static final int MAX_TRACKED = 256;
+
+    private static class Entry {
+        String title;
+        String text;
+        long seenAt;
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_TRACKED;
+        }
+    };
+
+    // Counters for how much work was saved
+    private int received;
+    private int droppedReposts;
+    private int processed;
+
+    /**
+     * Records the content for {@code key} from a live post.
+     *
+     * @param now a monotonic clock in milliseconds, such as SystemClock.elapsedRealtime()
+     * @return false if the notification is an identical repost and should be dropped
+     */
+    public synchronized boolean offer(String key, String title, String text, long now) {
+        received++;
+        if (!remember(key, title, text, now)) {
+            droppedReposts++;
+            return false;
+        }
+        processed++;
+        return true;
+    }
+
+    /**
+     * Records the content for {@code key} from a scan of active notifications. Never drops:
+     * scans are how missed messages are recovered, and the database already rejects rows it has saved.
+     */
+    public synchronized void record(String key, String title, String text, long now) {
+        received++;
+        remember(key, title, text, now);
+        processed++;
+    }
+
+    /**
+     * Forgets {@code key}, for when its notification is removed. The next post under it is always new.
+     */
+    public synchronized void forget(String key) {
+        entries.remove(key);
+    }
+
+    // Returns false if the content matches what was last seen for the key, within the window
+    private boolean remember(String key, String title, String text, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        } else if (now - entry.seenAt <= REPOST_WINDOW_MS && equals(entry.title, title) && equals(entry.text, text)) {
+            return false;
+        }
+        entry.title = title;
+        entry.text = text;
+        entry.seenAt = now;
+        return true;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    public synchronized String stats() {
+        return String.format(Locale.ROOT, "received=%d, droppedReposts=%d, processed=%d",
+                received, droppedReposts, processed);
+    }
+}
@@ -4,82 +4,140 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * A lightweight Tokenizer for DistilBERT on Android.
  * Converts text into token IDs using a vocabulary file.
  */
 public class SimpleTokenizer {
-    private final Map<String, Integer> vocab = new HashMap<>();
-    private final int MAX_LEN = 64; // Must match the value used during Python training
+    static final int MAX_LEN = 64; // Must match the value used during Python training
+
+    // Open addressing table over the vocab words, so a word inside the message can be looked up
+    // in place (lowercased char by char) without a substring or a lowercase copy of the text.
+    private final String[] words;
+    private final int[] ids;
+    private final int mask;
+
+    private final long clsId;
+    private final long sepId;
+    private final long unkId;
 
     public SimpleTokenizer(InputStream vocabStream) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(vocabStream));
         String line;
-        int index = 0;
+        List<String> lines = new ArrayList<>();
 
         // Read vocab.txt line by line.
         // Line 0 = ID 0, Line 1 = ID 1, etc.
         while ((line = reader.readLine()) != null) {
-            vocab.put(line.trim(), index++);
+            lines.add(line.trim());
+        }
+
+        // Keep the table at most half full so probe chains stay short
+        int capacity = Integer.highestOneBit(Math.max(lines.size(), 1) * 2) * 2;
+        words = new String[capacity];
+        ids = new int[capacity];
+        mask = capacity - 1;
+        for (int index = 0; index < lines.size(); index++) {
+            String word = lines.get(index);
+            int slot = hash(word, 0, word.length(), false) & mask;
+            // A repeated line takes the later ID, as a map put would
+            while (words[slot] != null && !words[slot].equals(word)) slot = (slot + 1) & mask;
+            words[slot] = word;
+            ids[slot] = index;
+        }
+
+        // Resolve special tokens once instead of on every call.
+        // Usually 101/102/100 for BERT/DistilBERT
+        clsId = idOrDefault("[CLS]", 101L);
+        sepId = idOrDefault("[SEP]", 102L);
+        unkId = idOrDefault("[UNK]", 100L);
+    }
+
+    private long idOrDefault(String token, long fallback) {
+        int id = lookup(token, 0, token.length(), false);
+        return id >= 0 ? id : fallback;
+    }
+
+    /**
+     * Returns the ID of {@code text[start, end)}, lowercased first if {@code lowercase}, or -1 if it is not in the vocab.
+     */
+    private int lookup(CharSequence text, int start, int end, boolean lowercase) {
+        int slot = hash(text, start, end, lowercase) & mask;
+        String word;
+        while ((word = words[slot]) != null) {
+            if (matches(word, text, start, end, lowercase)) return ids[slot];
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(CharSequence text, int start, int end, boolean lowercase) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            h = 31 * h + (lowercase ? Character.toLowerCase(c) : c);
         }
+        // Spread the high bits, since the table index only uses the low ones
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String word, CharSequence text, int start, int end, boolean lowercase) {
+        if (word.length() != end - start) return false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (word.charAt(i - start) != (lowercase ? Character.toLowerCase(c) : c)) return false;
+        }
+        return true;
     }
 
     public long[] tokenize(String text) {
-        List<Long> tokens = new ArrayList<>();
+        long[] result = new long[MAX_LEN];
+        tokenize(text, LongBuffer.wrap(result));
+        return result;
+    }
+
+    /**
+     * Writes exactly {@link #MAX_LEN} token IDs into {@code out}, starting at index 0,
+     * overwriting whatever was there before. Lets callers reuse one buffer across calls.
+     *
+     * @return the number of non-padding tokens written
+     */
+    public int tokenize(CharSequence text, LongBuffer out) {
+        int count = 0;
 
         // Add [CLS] token (Start of Sentence)
-        // Usually ID 101 for BERT/DistilBERT
-        if (vocab.containsKey("[CLS]")) {
-            tokens.add((long) vocab.get("[CLS]"));
-        } else {
-            tokens.add(101L); // Fallback standard ID
-        }
+        out.put(count++, clsId);
 
-        // Basic normalization: Lowercase and split by whitespace
+        // Basic normalization: Lowercase and split by whitespace, both done in place during lookup
         // Note: A full WordPiece tokenizer is complex; this is a simplified version
         // that works well for whole words in SMS.
-        String[] words = text.toLowerCase().split("\\s+");
-
-        for (String word : words) {
-            if (vocab.containsKey(word)) {
-                tokens.add((long) vocab.get(word));
-            } else {
-                // If word not found, try to find subwords or use [UNK]
-                // For simplicity in this lightweight version, we map unknown words to [UNK]
-                if (vocab.containsKey("[UNK]")) {
-                    tokens.add((long) vocab.get("[UNK]"));
-                } else {
-                    tokens.add(100L); // Fallback standard ID for UNK
-                }
-            }
-
-            // Stop if we exceed max length (minus 1 for [SEP])
-            if (tokens.size() >= MAX_LEN - 1) break;
+        int length = text.length();
+        int i = 0;
+
+        // Stop if we exceed max length (minus 1 for [SEP])
+        while (i < length && count < MAX_LEN - 1) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) i++;
+            if (i >= length) break;
+            int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) i++;
+
+            // Unknown words map to [UNK] in this lightweight version
+            int id = lookup(text, start, i, true);
+            out.put(count++, id >= 0 ? id : unkId);
         }
 
         // Add [SEP] token (End of Sentence)
-        // Usually ID 102 for BERT/DistilBERT
-        if (vocab.containsKey("[SEP]")) {
-            tokens.add((long) vocab.get("[SEP]"));
-        } else {
-            tokens.add(102L); // Fallback standard ID
-        }
+        out.put(count++, sepId);
 
-        // Padding: Fill the rest of the array with 0s until MAX_LEN
-        long[] result = new long[MAX_LEN];
-        for (int i = 0; i < result.length; i++) {
-            if (i < tokens.size()) {
-                result[i] = tokens.get(i);
-            } else {
-                result[i] = 0; // [PAD] token is usually ID 0
-            }
+        // Padding: Fill the rest of the buffer with 0s ([PAD]) until MAX_LEN
+        for (int p = count; p < MAX_LEN; p++) {
+            out.put(p, 0L);
         }
 
-        return result;
+        return count;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package com.example.expensemanager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bank specific message templates, keyed by source package and SMS sender ID (e.g. "HDFCBK").
+ * A matching template pulls out amount, direction, counterparty and balance in one anchored match;
+ * messages without one fall back to the generic regexes in {@link TransactionPipeline}.
+ *
+ * <p>Templates are read from a tab separated file, one per line:
+ * <pre>package  sender  debit|credit  regex</pre>
+ * where package may be {@code *} for every SMS app, and the regex captures amount in group 1,
+ * and optionally counterparty in group 2 and balance in group 3.
+ */
+public class SmsParserRegistry {
+
+    public static final Set<String> SMS_PACKAGES = new HashSet<>(Arrays.asList(
+            "com.google.android.apps.messaging",
+            "com.samsung.android.messaging",
+            "com.android.mms"));
+
+    public static class Result {
+        public final double amount; // Negative for debits
+        public final String counterparty;
+        public final String balance;
+
+        Result(double amount, String counterparty, String balance) {
+            this.amount = amount;
+            this.counterparty = counterparty;
+            this.balance = balance;
+        }
+    }
+
+    private static class Template {
+        final Pattern pattern;
+        final boolean debit;
+
+        Template(Pattern pattern, boolean debit) {
+            this.pattern = pattern;
+            this.debit = debit;
+        }
+    }
+
+    private final Set<String> packages = new HashSet<>(SMS_PACKAGES);
+    private final Map<String, List<Template>> templates = new HashMap<>();
+
+    public SmsParserRegistry() {
+    }
+
+    public SmsParserRegistry(InputStream templateStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(templateStream, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty() || line.startsWith("#")) continue;
+
+            String[] columns = line.split("\t", 4);
+            if (columns.length < 4) {
+                throw new IOException("Malformed template line: " + line);
+            }
+            String direction = columns[2].trim();
+            if (!"debit".equalsIgnoreCase(direction) && !"credit".equalsIgnoreCase(direction)) {
+                throw new IOException("Malformed template line: " + line);
+            }
+            Template template = new Template(Pattern.compile(columns[3]), "debit".equalsIgnoreCase(direction));
+            String sender = columns[1].toUpperCase(Locale.ROOT);
+
+            // Wildcards are expanded here so dispatch stays a single lookup
+            if ("*".equals(columns[0])) {
+                for (String smsPackage : SMS_PACKAGES) {
+                    register(smsPackage, sender, template);
+                }
+            } else {
+                packages.add(columns[0]);
+                register(columns[0], sender, template);
+            }
+        }
+    }
+
+    private void register(String packageName, String sender, Template template) {
+        String key = key(packageName, sender);
+        List<Template> list = templates.get(key);
+        if (list == null) {
+            list = new ArrayList<>(2);
+            templates.put(key, list);
+        }
+        list.add(template);
+    }
+
+    /**
+     * Returns true if notifications from {@code packageName} may carry transaction messages.
+     */
+    public boolean accepts(String packageName) {
+        return packages.contains(packageName);
+    }
+
+    /**
+     * Parses {@code text} with the template registered for this package and sender,
+     * or returns null if there is none or it does not match.
+     */
+    public Result parse(String packageName, String title, String text) {
+        if (title == null || text == null) return null;
+        List<Template> candidates = templates.get(key(packageName, senderId(title)));
+        if (candidates == null) return null;
+
+        for (Template template : candidates) {
+            Matcher matcher = template.pattern.matcher(text);
+            if (!matcher.lookingAt()) continue;
+
+            long paise = FixedPointParser.parsePaise(text, matcher.start(1), matcher.end(1));
+            if (paise == FixedPointParser.INVALID_AMOUNT) continue;
+            double amount = paise / 100.0;
+            String counterparty = optionalGroup(matcher, 2);
+            String balance = optionalGroup(matcher, 3);
+            return new Result(template.debit ? -amount : amount, counterparty, balance);
+        }
+        return null;
+    }
+
+    private static String optionalGroup(Matcher matcher, int group) {
+        if (matcher.groupCount() < group || matcher.group(group) == null) return null;
+        String value = matcher.group(group).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reduces a notification title like "VM-HDFCBK-S" to its six letter sender ID "HDFCBK".
+     */
+    static String senderId(String title) {
+        String upper = title.trim().toUpperCase(Locale.ROOT);
+        for (String part : upper.split("-")) {
+            if (part.length() == 6 && isLetters(part)) return part;
+        }
+        return upper;
+    }
+
+    private static boolean isLetters(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 'A' || c > 'Z') return false;
+        }
+        return true;
+    }
+
+    private static String key(String packageName, String sender) {
+        return packageName + '|' + sender;
+    }
+}
@@ -14,13 +14,19 @@ public class Transaction {
     private final double amount;
     private final int iconResId;
     private final long date;
+    private final String merchant;
+    // Package and SMS sender ID the message came from, e.g. "com.android.mms|HDFCBK"
+    private final String source;
 
-    public Transaction(String description, String category, double amount, int iconResId, long date) {
+    public Transaction(String description, String category, double amount, int iconResId, long date,
+                       String merchant, String source) {
         this.description = description;
         this.category = category;
         this.amount = amount;
         this.iconResId = iconResId;
         this.date = date;
+        this.merchant = merchant;
+        this.source = source;
     }
 
     // --- Getters and Setters ---
@@ -52,4 +58,12 @@ public class Transaction {
     public long getDate() {
         return date;
     }
+
+    public String getMerchant() {
+        return merchant;
+    }
+
+    public String getSource() {
+        return source;
+    }
 }
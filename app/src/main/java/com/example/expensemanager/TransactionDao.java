@@ -17,9 +17,15 @@ public interface TransactionDao {
     @Query("SELECT COUNT(*) FROM transactions WHERE description = :description AND date = :date")
     int getCountByDescriptionAndDate(String description, long date);
 
+    @Query("SELECT * FROM transactions WHERE date >= :since")
+    List<Transaction> getSince(long since);
+
     @Insert
     void insert(Transaction transaction);
 
+    @Query("UPDATE transactions SET category = :category, iconResId = :iconResId WHERE id = :id")
+    void updateCategory(int id, String category, int iconResId);
+
     @Delete
     void delete(Transaction transaction);
 
@@ -0,0 +1,348 @@
+package com.example.expensemanager;
+
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The notification-to-row path: parsing, dedup, classification and persistence.
+ * Has no Android framework dependencies, so it can be driven from a plain JVM with a
+ * stub classifier and any {@link TransactionDao}, such as an in-memory Room database.
+ */
+public class TransactionPipeline {
+
+    public interface Classifier {
+        /**
+         * Returns one of {@link Categories#ALL} for a transaction summary. Called on the worker only.
+         */
+        String classify(String summary);
+    }
+
+    public interface DebugLog {
+        /**
+         * Shown on the in-app debug screen.
+         */
+        void log(String message);
+
+        /**
+         * Whether {@link #detail} goes anywhere. Callers check it first, so detail messages are not
+         * built for a log that drops them.
+         */
+        default boolean detailEnabled() {
+            return false;
+        }
+
+        /**
+         * Developer detail for the system log only, never the debug screen. {@code error} may be null.
+         */
+        default void detail(String message, Throwable error) {
+        }
+    }
+
+    public enum Stage {
+        PARSE, DEDUP, CLASSIFY, PERSIST
+    }
+
+    public interface StageListener {
+        /**
+         * Called with the time one message spent in {@code stage}: on the caller's thread for
+         * {@link Stage#PARSE}, on the worker for the rest. A stage that rejects the message still reports.
+         */
+        void onStage(Stage stage, long nanos);
+    }
+
+    // Regex to find amount, recipient, and sender
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile("(?:Rs\\.?|INR|₹)\\s*([\\d,]+\\.?\\d{0,2})");
+    private static final Pattern RECIPIENT_PATTERN = Pattern.compile("(?:To|\\bVPA\\b)\\s*([A-Za-z\\s]+(?:\\s[A-Za-z]+)*)");
+    private static final Pattern SENDER_PATTERN = Pattern.compile("From\\s*([A-Za-z\\s]+(?:Bank)?)");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("([\\d,]+\\.?\\d{0,2})");
+
+    private final TransactionDao transactionDao;
+    private final MerchantMemory merchantMemory;
+    private final NearDuplicateIndex nearDuplicates;
+    private final Executor worker;
+    private final DebugLog debugLog;
+    private volatile SmsParserRegistry parserRegistry = new SmsParserRegistry();
+    private volatile Classifier classifier;
+    private volatile StageListener stageListener;
+
+    /**
+     * @param worker runs dedup, classification and persistence; must be single threaded, since the
+     *               near-duplicate index and the classifier are not thread-safe
+     */
+    public TransactionPipeline(TransactionDao transactionDao, MerchantMemory merchantMemory,
+                               NearDuplicateIndex nearDuplicates, Executor worker, DebugLog debugLog) {
+        this.transactionDao = transactionDao;
+        this.merchantMemory = merchantMemory;
+        this.nearDuplicates = nearDuplicates;
+        this.worker = worker;
+        this.debugLog = debugLog;
+    }
+
+    public void setParserRegistry(SmsParserRegistry parserRegistry) {
+        this.parserRegistry = parserRegistry;
+    }
+
+    public void setClassifier(Classifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * Set before any message is processed. With no listener set, nothing is timed.
+     */
+    public void setStageListener(StageListener stageListener) {
+        this.stageListener = stageListener;
+    }
+
+    public boolean accepts(String packageName) {
+        return parserRegistry.accepts(packageName);
+    }
+
+    /**
+     * Loads merchant corrections and recently saved transactions. Queued on the worker ahead of
+     * any message, so lookups always see the loaded indexes.
+     */
+    public void load() {
+        worker.execute(() -> {
+            try {
+                merchantMemory.load();
+                nearDuplicates.load(transactionDao.getSince(System.currentTimeMillis() - nearDuplicates.getWindowMs()));
+            } catch (Exception e) {
+                debugLog.log("ERROR: Could not load merchant categories or recent transactions: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Parses one message and, if it is a transaction, hands dedup, classification and
+     * persistence to the worker executor.
+     */
+    public void process(String packageName, String title, String text, long postTime) {
+        String fullMessage = (title != null ? title + " " : "") + (text != null ? text : "");
+        long parseStart = startStage();
+        String source = packageName + '|' + (title != null ? SmsParserRegistry.senderId(title) : "");
+
+        if (!fullMessage.trim().isEmpty()) {
+            debugLog.log("  -> Message Text: '" + fullMessage + "'");
+            SmsParserRegistry.Result parsed = parserRegistry.parse(packageName, title, text);
+            if (parsed != null) {
+                debugLog.log("  -> SUCCESS: Matched bank template (balance: " + parsed.balance + "). Classifying...");
+                classifyTransaction(fullMessage, postTime, parsed.amount, parsed.counterparty, source, parseStart);
+            } else if (isFinancialSms(fullMessage)) {
+                debugLog.log("  -> SUCCESS: Found financial SMS! Classifying...");
+                double amount = extractAmount(fullMessage);
+                classifyTransaction(fullMessage, postTime, amount, extractCounterparty(fullMessage, amount), source, parseStart);
+            } else {
+                debugLog.log("  -> INFO: Ignoring non-financial message.");
+                endStage(Stage.PARSE, parseStart);
+            }
+        } else {
+             debugLog.log("  -> INFO: Ignoring empty message.");
+             endStage(Stage.PARSE, parseStart);
+        }
+    }
+
+    private boolean isFinancialSms(String text) {
+        String lower = text.toLowerCase();
+        // Check for E-Mandate first
+        if (lower.contains("e-mandate")) {
+            debugLog.log("    -> Detected E-Mandate SMS.");
+            return isMandateForToday(text);
+        }
+
+        boolean isFinancial = lower.contains("rs") || lower.contains("inr") || lower.contains("₹") ||
+               lower.contains("debited") || lower.contains("credited") ||
+               lower.contains("spent") || lower.contains("paid") ||
+               lower.contains("sent") || lower.contains("received") ||
+               lower.contains("transaction") || lower.contains("payment");
+        debugLog.log("    -> isFinancialSms check result: " + isFinancial);
+        return isFinancial;
+    }
+
+    private boolean isMandateForToday(String text) {
+        // Finds dates like "On 02/12/25" or "On 02-12-2025"
+        int mandateDay = FixedPointParser.findDateAfterOn(text);
+        if (mandateDay == FixedPointParser.INVALID_DATE) {
+            debugLog.log("    -> E-Mandate text found, but no valid date matching 'on dd/mm/yy'.");
+            return false; // It's a mandate, but not in a format we can verify for today.
+        }
+
+        long now = System.currentTimeMillis();
+        long today = Math.floorDiv(now + TimeZone.getDefault().getOffset(now), 24L * 60 * 60 * 1000);
+        boolean isToday = mandateDay == today;
+
+        debugLog.log("    -> E-Mandate date check for epoch day " + mandateDay + ". Is today? " + isToday);
+        return isToday;
+    }
+
+    private void classifyTransaction(String text, long date, double amount, String merchant, String source, long parseStart) {
+        try {
+            String summary = summarize(text, amount, merchant);
+            endStage(Stage.PARSE, parseStart);
+
+            worker.execute(() -> {
+                long stageStart = startStage();
+                if (transactionDao.getCountByDescriptionAndDate(summary, date) > 0) {
+                    debugLog.log("  -> INFO: Ignoring duplicate transaction.");
+                    endStage(Stage.DEDUP, stageStart);
+                    return;
+                }
+                if (amount != 0 && nearDuplicates.containsNear(amount, date, merchant, source)) {
+                    debugLog.log("  -> INFO: Ignoring transaction already reported by another source.");
+                    endStage(Stage.DEDUP, stageStart);
+                    return;
+                }
+                stageStart = endStage(Stage.DEDUP, stageStart);
+
+                try {
+                    // A user correction for this merchant beats the model, and skips tokenization entirely.
+                    String detectedCategory = merchantMemory.lookup(merchant);
+                    if (detectedCategory != null) {
+                        debugLog.log("    -> Merchant memory classified as: " + detectedCategory);
+                    } else if (classifier == null) {
+                        debugLog.log("  -> ERROR: Model or tokenizer not initialized. Skipping classification.");
+                        return;
+                    } else {
+                        detectedCategory = classifier.classify(summary);
+                        debugLog.log("    -> AI Model classified as: " + detectedCategory);
+                    }
+
+                    stageStart = endStage(Stage.CLASSIFY, stageStart);
+                    if (Categories.SPAM.equals(detectedCategory)) {
+                        debugLog.log("    -> INFO: Ignored Spam Message.");
+                        return;
+                    }
+
+                    int iconResId = Categories.getIconForCategory(detectedCategory, amount < 0);
+
+                    Transaction transaction = new Transaction(summary, detectedCategory, amount, iconResId, date, merchant, source);
+                    transactionDao.insert(transaction);
+                    if (amount != 0) nearDuplicates.add(amount, date, merchant, source);
+                    endStage(Stage.PERSIST, stageStart);
+                    debugLog.log("  -> SUCCESS: Transaction Saved!");
+                } catch (Exception e) {
+                    debugLog.log("  -> FATAL: Error during classification: " + e.getMessage());
+                }
+            });
+
+        } catch (Exception e) {
+            debugLog.log("  -> FATAL: Error during classification: " + e.getMessage());
+        }
+    }
+
+    private long startStage() {
+        return stageListener != null ? System.nanoTime() : 0;
+    }
+
+    // Reports the stage that began at start, and returns the start of the next one
+    private long endStage(Stage stage, long start) {
+        StageListener listener = stageListener;
+        if (listener == null) return 0;
+        long now = System.nanoTime();
+        listener.onStage(stage, now - start);
+        return now;
+    }
+
+    /**
+     * Returns the recipient (VPA or name) of a debit or the sender of a credit, or null if none is found.
+     */
+    private String extractCounterparty(String text, double amountValue) {
+        Matcher matcher = (amountValue < 0 ? RECIPIENT_PATTERN : SENDER_PATTERN).matcher(text);
+        if (matcher.find()) {
+            // The name class includes \s, so stop at the line break before the next field ("To JOHN\nOn 05/12/25")
+            int start = matcher.start(1);
+            int end = matcher.end(1);
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    end = i;
+                    break;
+                }
+            }
+            String counterparty = text.substring(start, end).trim();
+            return counterparty.isEmpty() ? null : counterparty;
+        }
+        return null;
+    }
+
+    private String summarize(String text, double amountValue, String counterparty) {
+        Matcher amountMatcher = AMOUNT_PATTERN.matcher(text);
+
+        if (amountMatcher.find()) {
+            String amount = amountMatcher.group(0);
+            String summary;
+            if (amountValue < 0) { // Debit
+                String recipient = counterparty != null ? " to " + counterparty : "";
+                summary = "Sent " + amount + recipient;
+            } else { // Credit
+                String sender = counterparty != null ? " from " + counterparty : "";
+                summary = "Received " + amount + sender;
+            }
+            return summary;
+        }
+
+        // If no amount is found, return the original text
+        return text;
+    }
+
+    private double extractAmount(String text) {
+    if (debugLog.detailEnabled()) debugLog.detail("Attempting to extract amount from: " + text, null);
+    // This regex is simpler and just finds number-like sequences.
+    Matcher matcher = NUMBER_PATTERN.matcher(text);
+
+    // We need to find the number that is associated with a currency symbol or keyword.
+    while (matcher.find()) {
+        try {
+            int matchStart = matcher.start(1);
+            int matchEnd = matcher.end(1);
+            if (matchStart == matchEnd) {
+                continue;
+            }
+
+            // Define a "context window" around the number to look for keywords.
+            int windowStart = Math.max(0, matchStart - 20);
+            int windowEnd = Math.min(text.length(), matchEnd + 20);
+
+            // Check if the context window contains financial keywords.
+            boolean expense = containsIgnoreCase(text, windowStart, windowEnd, "debited") ||
+                containsIgnoreCase(text, windowStart, windowEnd, "spent") ||
+                containsIgnoreCase(text, windowStart, windowEnd, "sent") ||
+                containsIgnoreCase(text, windowStart, windowEnd, "paid");
+            if (expense || containsIgnoreCase(text, windowStart, windowEnd, "rs") ||
+                containsIgnoreCase(text, windowStart, windowEnd, "inr") ||
+                containsIgnoreCase(text, windowStart, windowEnd, "₹") ||
+                containsIgnoreCase(text, windowStart, windowEnd, "credited")) {
+
+                long paise = FixedPointParser.parsePaise(text, matchStart, matchEnd);
+                if (paise == FixedPointParser.INVALID_AMOUNT) {
+                    continue;
+                }
+                double amount = paise / 100.0;
+
+                // Check for keywords to determine if it's an expense.
+                if (expense) {
+                    if (debugLog.detailEnabled()) debugLog.detail("Expense found: " + -amount, null);
+                    return -amount;
+                } else {
+                    if (debugLog.detailEnabled()) debugLog.detail("Income/other found: " + amount, null);
+                    return amount;
+                }
+            }
+        } catch (Exception e) {
+            if (debugLog.detailEnabled()) debugLog.detail("Could not parse amount from: " + matcher.group(1), e);
+        }
+    }
+
+    if (debugLog.detailEnabled()) debugLog.detail("No financial amount found in the text.", null);
+    return 0.0;
+}
+
+    // Like text.substring(from, to).toLowerCase().contains(keyword) for a lower case keyword, without the copies
+    static boolean containsIgnoreCase(String text, int from, int to, String keyword) {
+        for (int i = from; i + keyword.length() <= to; i++) {
+            if (text.regionMatches(true, i, keyword, 0, keyword.length())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.File;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Builds each older schema by hand, as Room generated it for that version, then opens it with the
+ * current {@link AppDatabase}. Room validates every table against the entities after migrating,
+ * so a migration that leaves the schema different from a fresh install fails here.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AppDatabaseMigrationTest {
+
+    private static final String NAME = "migration-test.db";
+
+    private static final String TRANSACTIONS_V1 = "CREATE TABLE IF NOT EXISTS `transactions` "
+            + "(`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `description` TEXT, `category` TEXT, "
+            + "`amount` REAL NOT NULL, `iconResId` INTEGER NOT NULL, `date` INTEGER NOT NULL)";
+    private static final String TRANSACTIONS_V2 = "CREATE TABLE IF NOT EXISTS `transactions` "
+            + "(`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `description` TEXT, `category` TEXT, "
+            + "`amount` REAL NOT NULL, `iconResId` INTEGER NOT NULL, `date` INTEGER NOT NULL, `merchant` TEXT)";
+    private static final String MERCHANT_CATEGORIES_V2 = "CREATE TABLE IF NOT EXISTS `merchant_categories` "
+            + "(`merchant` TEXT NOT NULL, `category` TEXT, PRIMARY KEY(`merchant`))";
+
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(NAME);
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) db.close();
+        context.deleteDatabase(NAME);
+    }
+
+    @Test
+    public void migratesFromVersion1() {
+        SQLiteDatabase old = createAtVersion(1, TRANSACTIONS_V1);
+        ContentValues row = transactionRow();
+        old.insert("transactions", null, row);
+        old.close();
+
+        db = open();
+
+        Transaction migrated = onlyTransaction();
+        assertEquals("Sent Rs.500.00 to JOHN DOE", migrated.getDescription());
+        assertNull(migrated.getMerchant());
+        assertNull(migrated.getSource());
+        db.merchantCategoryDao().upsert(new MerchantCategory("john doe", "Food"));
+        assertEquals("Food", db.merchantCategoryDao().getAll().get(0).getCategory());
+    }
+
+    @Test
+    public void migratesFromVersion2() {
+        SQLiteDatabase old = createAtVersion(2, TRANSACTIONS_V2, MERCHANT_CATEGORIES_V2);
+        ContentValues row = transactionRow();
+        row.put("merchant", "JOHN DOE");
+        old.insert("transactions", null, row);
+        ContentValues correction = new ContentValues();
+        correction.put("merchant", "john doe");
+        correction.put("category", "Food");
+        old.insert("merchant_categories", null, correction);
+        old.close();
+
+        db = open();
+
+        Transaction migrated = onlyTransaction();
+        assertEquals("JOHN DOE", migrated.getMerchant());
+        assertNull(migrated.getSource());
+        assertEquals("Food", db.merchantCategoryDao().getAll().get(0).getCategory());
+    }
+
+    private SQLiteDatabase createAtVersion(int version, String... createStatements) {
+        File file = context.getDatabasePath(NAME);
+        file.getParentFile().mkdirs();
+        SQLiteDatabase old = SQLiteDatabase.openOrCreateDatabase(file, null);
+        for (String sql : createStatements) {
+            old.execSQL(sql);
+        }
+        old.setVersion(version);
+        return old;
+    }
+
+    private AppDatabase open() {
+        return Room.databaseBuilder(context, AppDatabase.class, NAME)
+                .addMigrations(AppDatabase.MIGRATION_1_2, AppDatabase.MIGRATION_2_3)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    private Transaction onlyTransaction() {
+        List<Transaction> rows = db.transactionDao().getSince(Long.MIN_VALUE);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+
+    private static ContentValues transactionRow() {
+        ContentValues row = new ContentValues();
+        row.put("description", "Sent Rs.500.00 to JOHN DOE");
+        row.put("category", "Transfer");
+        row.put("amount", -500.0);
+        row.put("iconResId", 0);
+        row.put("date", 1_760_000_000_000L);
+        return row;
+    }
+}
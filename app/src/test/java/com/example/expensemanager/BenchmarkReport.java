@@ -0,0 +1,88 @@
+package com.example.expensemanager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shared plumbing for the JVM benchmarks: round count, per-thread allocation counting and
+ * one-line results. Each result is printed as {@code BENCH <json object>} with keys in insertion
+ * order, so runs can be diffed or collected with {@code grep '^BENCH '}.
+ *
+ * <p>Gradle only runs the benchmarks when {@code -PbenchmarkRounds=N} is passed, and then runs
+ * nothing else. Rounds default to 1 for a single benchmark started from the IDE.
+ */
+final class BenchmarkReport {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+
+    BenchmarkReport(String benchmark) {
+        fields.put("benchmark", benchmark);
+        // When false, every bytes figure in the line is meaningless
+        fields.put("allocations_tracked", allocatedBytes() >= 0);
+    }
+
+    static int rounds() {
+        String value = System.getProperty("benchmark.rounds");
+        return value == null || value.isEmpty() ? 1 : Math.max(1, Integer.parseInt(value));
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 if this JVM cannot tell.
+     */
+    static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemorySupported()) return -1;
+        if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    BenchmarkReport put(String key, Object value) {
+        fields.put(key, value);
+        return this;
+    }
+
+    /**
+     * Adds {@code <prefix>_p50_ns}, {@code _p90_ns} and {@code _p99_ns} for the first {@code count} samples.
+     */
+    BenchmarkReport putPercentiles(String prefix, long[] samples, int count) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        fields.put(prefix + "_p50_ns", percentile(sorted, 50));
+        fields.put(prefix + "_p90_ns", percentile(sorted, 90));
+        fields.put(prefix + "_p99_ns", percentile(sorted, 99));
+        return this;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        // Nearest rank
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    void print() {
+        StringBuilder json = new StringBuilder("BENCH {");
+        boolean first = true;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (!first) json.append(", ");
+            first = false;
+            json.append('"').append(field.getKey()).append("\": ");
+            Object value = field.getValue();
+            if (value instanceof Double || value instanceof Float) {
+                json.append(String.format(Locale.ROOT, "%.2f", ((Number) value).doubleValue()));
+            } else if (value instanceof Number || value instanceof Boolean) {
+                json.append(value);
+            } else {
+                json.append('"').append(String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        System.out.println(json.append('}'));
+    }
+}
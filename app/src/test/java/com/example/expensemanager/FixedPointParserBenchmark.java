@@ -0,0 +1,99 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Time and allocation per call of the fixed point scanners against the regex, replaceAll,
+ * Double.parseDouble and SimpleDateFormat code they replaced. Prints one BENCH line per round.
+ */
+public class FixedPointParserBenchmark {
+
+    private static final String[] AMOUNTS = {"1,23,456.78", "500.00", "12,000", "99.5", "2,50,000.00"};
+    private static final String MANDATE = "Your e-mandate for Rs 499 will be debited on 02/12/25 from A/c XX1234";
+    private static final int AMOUNT_CALLS = 1_000_000;
+    private static final int DATE_CALLS = 100_000;
+
+    private long sink;
+
+    private static long oldPaise(String s) {
+        return Math.round(Double.parseDouble(s.replaceAll(",", "")) * 100);
+    }
+
+    // The old mandate check: compile, match, parse and compare through Calendar
+    private static int oldMandateYear(String text) {
+        Matcher matcher = Pattern.compile("on\\s*(\\d{2}[/-]\\d{2}[/-]\\d{2,4})", Pattern.CASE_INSENSITIVE).matcher(text);
+        if (!matcher.find()) return 0;
+        String date = matcher.group(1).replace('-', '/');
+        SimpleDateFormat format = new SimpleDateFormat(date.length() > 8 ? "dd/MM/yyyy" : "dd/MM/yy", Locale.getDefault());
+        try {
+            Date parsed = format.parse(date);
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(parsed);
+            return calendar.get(Calendar.YEAR);
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        // Same answers first, so the timings compare like with like
+        for (String amount : AMOUNTS) {
+            assertEquals(oldPaise(amount), FixedPointParser.parsePaise(amount, 0, amount.length()));
+        }
+
+        int rounds = BenchmarkReport.rounds();
+        for (int round = 0; round <= rounds; round++) {
+            long oldAmountBytes = BenchmarkReport.allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < AMOUNT_CALLS; i++) sink += oldPaise(AMOUNTS[i % AMOUNTS.length]);
+            long oldAmountNs = System.nanoTime() - start;
+            oldAmountBytes = BenchmarkReport.allocatedBytes() - oldAmountBytes;
+
+            long newAmountBytes = BenchmarkReport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < AMOUNT_CALLS; i++) {
+                String amount = AMOUNTS[i % AMOUNTS.length];
+                sink += FixedPointParser.parsePaise(amount, 0, amount.length());
+            }
+            long newAmountNs = System.nanoTime() - start;
+            newAmountBytes = BenchmarkReport.allocatedBytes() - newAmountBytes;
+
+            long oldDateBytes = BenchmarkReport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < DATE_CALLS; i++) sink += oldMandateYear(MANDATE);
+            long oldDateNs = System.nanoTime() - start;
+            oldDateBytes = BenchmarkReport.allocatedBytes() - oldDateBytes;
+
+            long newDateBytes = BenchmarkReport.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < DATE_CALLS; i++) sink += FixedPointParser.findDateAfterOn(MANDATE);
+            long newDateNs = System.nanoTime() - start;
+            newDateBytes = BenchmarkReport.allocatedBytes() - newDateBytes;
+
+            // Round 0 only warms up the JIT
+            if (round == 0) continue;
+            new BenchmarkReport("fixed_point_parser")
+                    .put("round", round)
+                    .put("amount_old_ns_per_op", (double) oldAmountNs / AMOUNT_CALLS)
+                    .put("amount_new_ns_per_op", (double) newAmountNs / AMOUNT_CALLS)
+                    .put("amount_old_bytes_per_op", (double) oldAmountBytes / AMOUNT_CALLS)
+                    .put("amount_new_bytes_per_op", (double) newAmountBytes / AMOUNT_CALLS)
+                    .put("date_old_ns_per_op", (double) oldDateNs / DATE_CALLS)
+                    .put("date_new_ns_per_op", (double) newDateNs / DATE_CALLS)
+                    .put("date_old_bytes_per_op", (double) oldDateBytes / DATE_CALLS)
+                    .put("date_new_bytes_per_op", (double) newDateBytes / DATE_CALLS)
+                    .put("sink", sink & 1)
+                    .print();
+        }
+    }
+}
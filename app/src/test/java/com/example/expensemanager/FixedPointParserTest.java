@@ -0,0 +1,105 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Checks the scanners against the regex and JDK parsing they replaced, on seeded random input.
+ */
+public class FixedPointParserTest {
+
+    private static final Pattern AMOUNT = Pattern.compile("[\\d,]+\\.?\\d{0,2}");
+    private static final Pattern DATE_AFTER_ON = Pattern.compile("on\\s*(\\d{2}[/-]\\d{2}[/-]\\d{2,4})", Pattern.CASE_INSENSITIVE);
+
+    // The one two digit year SimpleDateFormat resolves by month and day rather than by year alone
+    private static final int PIVOT_YY = (Calendar.getInstance().get(Calendar.YEAR) - 80) % 100;
+
+    // What TransactionPipeline.extractAmount used to do with a matched amount
+    private static long oldPaise(String s) {
+        try {
+            return Math.round(Double.parseDouble(s.replaceAll(",", "")) * 100);
+        } catch (NumberFormatException e) {
+            return FixedPointParser.INVALID_AMOUNT;
+        }
+    }
+
+    // What isMandateForToday used to do, minus leniency: 31/02 used to roll over into March
+    private static int oldEpochDay(String text) {
+        Matcher matcher = DATE_AFTER_ON.matcher(text);
+        if (!matcher.find()) return FixedPointParser.INVALID_DATE;
+        String date = matcher.group(1).replace('-', '/');
+        SimpleDateFormat format = new SimpleDateFormat(date.length() > 8 ? "dd/MM/yyyy" : "dd/MM/yy", Locale.ROOT);
+        format.setLenient(false);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return (int) (format.parse(date).getTime() / (24L * 60 * 60 * 1000));
+        } catch (ParseException e) {
+            return FixedPointParser.INVALID_DATE;
+        }
+    }
+
+    @Test
+    public void parsePaiseMatchesParseDouble() {
+        Random random = new Random(42);
+        String alphabet = "0123456789,,.";
+        int checked = 0;
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder candidate = new StringBuilder();
+            int length = 1 + random.nextInt(14);
+            for (int k = 0; k < length; k++) candidate.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            String s = candidate.toString();
+            if (!AMOUNT.matcher(s).matches()) continue;
+
+            checked++;
+            assertEquals(s, oldPaise(s), FixedPointParser.parsePaise(s, 0, s.length()));
+        }
+        assertTrue(checked > 10_000);
+    }
+
+    @Test
+    public void parsePaiseExamples() {
+        assertEquals(12345678, FixedPointParser.parsePaise("1,23,456.78", 0, 11));
+        assertEquals(9950, FixedPointParser.parsePaise("99.5", 0, 4));
+        assertEquals(50000, FixedPointParser.parsePaise("Rs.500.", 3, 7));
+        assertEquals(FixedPointParser.INVALID_AMOUNT, FixedPointParser.parsePaise(",.", 0, 2));
+        assertEquals(FixedPointParser.INVALID_AMOUNT, FixedPointParser.parsePaise("1.234", 0, 5));
+        assertEquals(FixedPointParser.INVALID_AMOUNT, FixedPointParser.parsePaise("99999999999999999999", 0, 20));
+    }
+
+    @Test
+    public void findDateAfterOnMatchesSimpleDateFormat() {
+        Random random = new Random(7);
+        String[] prefixes = {"E-mandate on ", "due On", "ON\t", "Amazon ", "on  x ", "mon", "Rs 499 "};
+        for (int i = 0; i < 100_000; i++) {
+            int yy = random.nextInt(100);
+            boolean twoDigitYear = random.nextBoolean();
+            String text = prefixes[random.nextInt(prefixes.length)]
+                    + String.format(Locale.ROOT, "%02d", random.nextInt(40)) + (random.nextBoolean() ? "/" : "-")
+                    + String.format(Locale.ROOT, "%02d", random.nextInt(15)) + (random.nextBoolean() ? "/" : "-")
+                    + (twoDigitYear ? String.format(Locale.ROOT, "%02d", yy) : String.valueOf(1990 + random.nextInt(60)))
+                    + " from A/c XX1234";
+            if (twoDigitYear && yy == PIVOT_YY) continue;
+
+            assertEquals(text, oldEpochDay(text), FixedPointParser.findDateAfterOn(text));
+        }
+    }
+
+    @Test
+    public void findDateAfterOnExamples() {
+        assertEquals(FixedPointParser.epochDay(2025, 12, 2), FixedPointParser.findDateAfterOn("will be debited On 02/12/25 for Rs 499"));
+        assertEquals(FixedPointParser.epochDay(2024, 2, 29), FixedPointParser.findDateAfterOn("e-mandate on 29-02-2024"));
+        assertEquals(FixedPointParser.INVALID_DATE, FixedPointParser.findDateAfterOn("e-mandate on 29/02/2025"));
+        assertEquals(FixedPointParser.INVALID_DATE, FixedPointParser.findDateAfterOn("no date here"));
+        assertEquals(0, FixedPointParser.epochDay(1970, 1, 1));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class InferenceContextTest {
+
+    // IDs are line numbers: [PAD]=0, [UNK]=1, [CLS]=2, [SEP]=3, sent=4, rs=5, to=6, john=7
+    private static final String VOCAB = "[PAD]\n[UNK]\n[CLS]\n[SEP]\nsent\nrs\nto\njohn\n";
+
+    private static SimpleTokenizer tokenizer() throws IOException {
+        return new SimpleTokenizer(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void argmaxHandlesAllNegativeScores() {
+        assertEquals(1, InferenceContext.argmax(new float[]{-3f, -1f, -2f}));
+        assertEquals(0, InferenceContext.argmax(new float[]{-Float.MAX_VALUE, -Float.MAX_VALUE}));
+        assertEquals(2, InferenceContext.argmax(new float[]{Float.NEGATIVE_INFINITY, -5f, 0.5f}));
+    }
+
+    @Test
+    public void argmaxPicksFirstOfEqualScores() {
+        assertEquals(1, InferenceContext.argmax(new float[]{0f, 2f, 2f}));
+    }
+
+    @Test
+    public void fillInputsMasksOnlyRealTokens() throws IOException {
+        LongBuffer inputIds = LongBuffer.allocate(SimpleTokenizer.MAX_LEN);
+        LongBuffer mask = LongBuffer.allocate(SimpleTokenizer.MAX_LEN);
+
+        int count = InferenceContext.fillInputs(tokenizer(), "Sent Rs 500 to John", inputIds, mask);
+
+        assertEquals(7, count);
+        for (int i = 0; i < SimpleTokenizer.MAX_LEN; i++) {
+            assertEquals(i < count ? 1 : 0, mask.get(i));
+        }
+        assertEquals(3, inputIds.get(count - 1));
+    }
+
+    @Test
+    public void fillInputsDoesNotAllocateInSteadyState() throws IOException {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SimpleTokenizer tokenizer = tokenizer();
+        LongBuffer inputIds = LongBuffer.allocate(SimpleTokenizer.MAX_LEN);
+        LongBuffer mask = LongBuffer.allocate(SimpleTokenizer.MAX_LEN);
+        String text = "Sent Rs.500.00 From HDFC Bank A/C *1234 To JOHN DOE On 05/12/25";
+        for (int i = 0; i < 20_000; i++) InferenceContext.fillInputs(tokenizer, text, inputIds, mask); // Warm up the JIT
+
+        int calls = 100_000;
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) InferenceContext.fillInputs(tokenizer, text, inputIds, mask);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Leaves room for the measurement itself, but not for even one object per call
+        assertTrue("Allocated " + allocated + " bytes over " + calls + " calls", allocated < calls);
+    }
+}
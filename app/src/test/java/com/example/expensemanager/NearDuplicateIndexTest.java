@@ -0,0 +1,102 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.junit.Test;
+
+public class NearDuplicateIndexTest {
+
+    private static final long WINDOW_MS = 60 * 1000;
+    private static final long T = 1_760_000_000_000L;
+    private static final String BANK = "com.google.android.apps.messaging|HDFCBK";
+    private static final String UPI_APP = "com.google.android.apps.messaging|GPAYIN";
+
+    @Test
+    public void secondSourceWithMatchingCounterpartyIsDuplicate() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-500, T, "JOHN DOE", BANK);
+
+        assertTrue(index.containsNear(-500, T + 45_000, "Mr John", UPI_APP));
+    }
+
+    @Test
+    public void sameSourceIsNeverDuplicate() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-500, T, "JOHN DOE", BANK);
+
+        assertFalse(index.containsNear(-500, T + 1_000, "JOHN DOE", BANK));
+    }
+
+    @Test
+    public void differentCounterpartiesAreNotDuplicates() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-500, T, "JOHN DOE", BANK);
+
+        assertFalse(index.containsNear(-500, T + 1_000, "Grocery Mart", UPI_APP));
+    }
+
+    @Test
+    public void sharedBoilerplateWordsDoNotMakeADuplicate() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-100, T, "ALICE via UPI Ref", BANK);
+
+        assertFalse(index.containsNear(-100, T + 20_000, "BOB via UPI Ref", UPI_APP));
+    }
+
+    @Test
+    public void onlyBoilerplateCountsAsUnknownCounterparty() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-100, T, "via UPI Ref 512345", BANK);
+
+        assertTrue(index.containsNear(-100, T + 5_000, "ALICE", UPI_APP));
+        assertFalse(index.containsNear(-100, T + 20_000, "ALICE", UPI_APP));
+    }
+
+    @Test
+    public void unknownCounterpartyOnlyMatchesNearSimultaneousReports() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-500, T, null, BANK);
+
+        assertTrue(index.containsNear(-500, T + NearDuplicateIndex.UNKNOWN_COUNTERPARTY_WINDOW_MS, "JOHN DOE", UPI_APP));
+        assertFalse(index.containsNear(-500, T + NearDuplicateIndex.UNKNOWN_COUNTERPARTY_WINDOW_MS + 1, "JOHN DOE", UPI_APP));
+    }
+
+    @Test
+    public void amountAndDirectionMustMatch() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.add(-500, T, "JOHN DOE", BANK);
+
+        assertFalse(index.containsNear(500, T, "JOHN DOE", UPI_APP));
+        assertFalse(index.containsNear(-500.01, T, "JOHN DOE", UPI_APP));
+        assertFalse(index.containsNear(-500, T + WINDOW_MS + 1, "JOHN DOE", UPI_APP));
+    }
+
+    @Test
+    public void rowsWithoutSourceCountAsAnotherSource() {
+        NearDuplicateIndex index = new NearDuplicateIndex(WINDOW_MS);
+        index.load(Collections.singletonList(new Transaction("Sent Rs.500 to JOHN DOE", "Transfer", -500, 0, T, "JOHN DOE", null)));
+
+        assertTrue(index.containsNear(-500, T + 1_000, "John Doe", BANK));
+    }
+
+    @Test
+    public void counterpartiesMatchComparesDistinctiveWholeWords() {
+        assertFalse(NearDuplicateIndex.counterpartiesMatch("an", "john anand"));
+        assertFalse(NearDuplicateIndex.counterpartiesMatch("ALICE via UPI Ref", "BOB via UPI Ref"));
+        assertFalse(NearDuplicateIndex.counterpartiesMatch("MR RAHUL", "MR AMIT"));
+        assertFalse(NearDuplicateIndex.counterpartiesMatch("UBER INDIA", "SWIGGY INDIA"));
+        assertFalse(NearDuplicateIndex.counterpartiesMatch("JOHN KUMAR", "JOHN DOE"));
+        assertTrue(NearDuplicateIndex.counterpartiesMatch("UBER INDIA PVT LTD", "Uber"));
+        assertTrue(NearDuplicateIndex.counterpartiesMatch("JOHN DOE via UPI Ref", "Mr John Doe"));
+    }
+
+    @Test
+    public void counterpartiesMatchNeedsBothSides() {
+        assertTrue(NearDuplicateIndex.counterpartiesMatch("JOHN DOE", "john"));
+        assertTrue(NearDuplicateIndex.counterpartiesMatch("Mr John Doe", "Doe John K"));
+        assertFalse(NearDuplicateIndex.counterpartiesMatch(null, "john"));
+        assertFalse(NearDuplicateIndex.counterpartiesMatch("  ", "john"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class NotificationCoalescerTest {
+
+    private static final String KEY = "0|com.google.android.apps.messaging|12|HDFCBK|10001";
+    private static final long T = 5_000_000L;
+
+    @Test
+    public void identicalRepostIsDropped() {
+        NotificationCoalescer coalescer = new NotificationCoalescer();
+
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T));
+        assertFalse(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T + 200));
+    }
+
+    @Test
+    public void identicalMessageAfterTheWindowIsProcessed() {
+        NotificationCoalescer coalescer = new NotificationCoalescer();
+
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T));
+        // Same wording again later, e.g. a monthly mandate or a bank that sends no reference number
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T + NotificationCoalescer.REPOST_WINDOW_MS + 1));
+    }
+
+    @Test
+    public void removedNotificationIsForgotten() {
+        NotificationCoalescer coalescer = new NotificationCoalescer();
+
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T));
+        coalescer.forget(KEY);
+
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T + 200));
+    }
+
+    @Test
+    public void successiveMessagesUnderOneKeyAreAllKept() {
+        NotificationCoalescer coalescer = new NotificationCoalescer();
+
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T));
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.120.00 debited", T + 100));
+        // Same amount again is a second payment, not a repost, once other content came in between
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T + 200));
+    }
+
+    @Test
+    public void scanNeverDropsButStillRecordsContent() {
+        NotificationCoalescer coalescer = new NotificationCoalescer();
+
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", "Rs.500.00 debited", T));
+        coalescer.record(KEY, "VM-HDFCBK", "Rs.500.00 debited", T + 100);
+        coalescer.record(KEY, "VM-HDFCBK", "Rs.120.00 debited", T + 200);
+
+        assertFalse(coalescer.offer(KEY, "VM-HDFCBK", "Rs.120.00 debited", T + 300));
+    }
+
+    @Test
+    public void nullTitleOrTextIsComparedSafely() {
+        NotificationCoalescer coalescer = new NotificationCoalescer();
+
+        assertTrue(coalescer.offer(KEY, null, "Rs.500.00 debited", T));
+        assertFalse(coalescer.offer(KEY, null, "Rs.500.00 debited", T + 100));
+        assertTrue(coalescer.offer(KEY, "VM-HDFCBK", null, T + 200));
+    }
+}
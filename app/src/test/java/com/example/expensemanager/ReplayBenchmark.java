@@ -0,0 +1,188 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Replays a fixed corpus of financial, OTP, spam and e-mandate messages through the real
+ * {@link TransactionPipeline}, templates and dedup, into an in-memory Room database. The model is
+ * replaced by a stub classifier that answers with the category labelled in the corpus, so the
+ * numbers cover everything around inference.
+ *
+ * <p>Prints one BENCH line per round with messages per second, p50/p90/p99 latency per stage
+ * and end to end, and bytes allocated per message on the replaying thread.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ReplayBenchmark {
+
+    private static final String CORPUS = "sms_corpus.tsv";
+    private static final int REPLAYS_PER_ROUND = 20;
+    // Messages in one replay are this far apart: inside the near-duplicate window, as a burst would be
+    private static final long MESSAGE_SPACING_MS = 5_000;
+    // Replays are further apart than the near-duplicate window, so each one is saved afresh
+    private static final long REPLAY_SPACING_MS = 60 * 60 * 1000;
+
+    private static class Message {
+        final String kind;
+        final boolean saved;
+        final String category; // null if the classifier must not be asked
+        final String packageName;
+        final String title;
+        final String text;
+
+        Message(String kind, boolean saved, String category, String packageName, String title, String text) {
+            this.kind = kind;
+            this.saved = saved;
+            this.category = category;
+            this.packageName = packageName;
+            this.title = title;
+            this.text = text;
+        }
+    }
+
+    private AppDatabase db;
+    private TransactionPipeline pipeline;
+    private List<Message> corpus;
+
+    // Written by the stub classifier and the stage listener, both on this thread
+    private Message current;
+    private int unexpectedClassifications;
+    private long[][] stageNanos;
+    private int[] stageCounts;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        corpus = readCorpus();
+
+        // The worker runs tasks inline, so every stage runs on this thread and is measured here
+        pipeline = new TransactionPipeline(db.transactionDao(), new MerchantMemory(db.merchantCategoryDao()),
+                new NearDuplicateIndex(60 * 1000), Runnable::run, message -> { });
+        try (InputStream templates = context.getAssets().open("sms_templates.txt")) {
+            pipeline.setParserRegistry(new SmsParserRegistry(templates));
+        }
+        pipeline.setClassifier(summary -> {
+            if (current.category == null) {
+                unexpectedClassifications++;
+                return "Transfer";
+            }
+            return current.category;
+        });
+        pipeline.load();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void replay() {
+        int messagesPerRound = corpus.size() * REPLAYS_PER_ROUND;
+        int expectedSavedPerRound = 0;
+        for (Message message : corpus) {
+            if (message.saved) expectedSavedPerRound += REPLAYS_PER_ROUND;
+        }
+
+        TransactionPipeline.Stage[] stages = TransactionPipeline.Stage.values();
+        stageNanos = new long[stages.length][messagesPerRound];
+        stageCounts = new int[stages.length];
+        long[] totalNanos = new long[messagesPerRound];
+        pipeline.setStageListener((stage, nanos) -> stageNanos[stage.ordinal()][stageCounts[stage.ordinal()]++] = nanos);
+
+        int rounds = BenchmarkReport.rounds();
+        long baseTime = System.currentTimeMillis() - (rounds + 1L) * REPLAYS_PER_ROUND * REPLAY_SPACING_MS;
+        int replay = 0;
+        for (int round = 0; round <= rounds; round++) {
+            Arrays.fill(stageCounts, 0);
+            int rowsBefore = rowCount();
+
+            int index = 0;
+            long bytes = BenchmarkReport.allocatedBytes();
+            long start = System.nanoTime();
+            for (int r = 0; r < REPLAYS_PER_ROUND; r++, replay++) {
+                long replayTime = baseTime + replay * REPLAY_SPACING_MS;
+                // The very first replay checks each message on its own; the rest are timed untouched
+                boolean check = replay == 0;
+                for (int i = 0; i < corpus.size(); i++) {
+                    Message message = corpus.get(i);
+                    current = message;
+                    int rows = check ? rowCount() : 0;
+                    long messageStart = System.nanoTime();
+                    pipeline.process(message.packageName, message.title, message.text, replayTime + i * MESSAGE_SPACING_MS);
+                    totalNanos[index++] = System.nanoTime() - messageStart;
+                    if (check) {
+                        assertEquals(message.kind + " message saved: " + message.text, message.saved ? 1 : 0, rowCount() - rows);
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            bytes = BenchmarkReport.allocatedBytes() - bytes;
+
+            // Sanity first: a fast pipeline that saves the wrong rows measures nothing
+            int saved = rowCount() - rowsBefore;
+            assertEquals("Rows saved in round " + round, expectedSavedPerRound, saved);
+            assertEquals("Messages sent to the classifier that should have been filtered", 0, unexpectedClassifications);
+
+            // Round 0 only warms up the JIT, Room and SQLite
+            if (round == 0) continue;
+            BenchmarkReport report = new BenchmarkReport("replay")
+                    .put("round", round)
+                    .put("messages", messagesPerRound)
+                    .put("saved", saved)
+                    .put("msgs_per_s", messagesPerRound * 1e9 / elapsed)
+                    .put("bytes_per_msg", (double) bytes / messagesPerRound)
+                    .putPercentiles("total", totalNanos, messagesPerRound);
+            for (TransactionPipeline.Stage stage : stages) {
+                report.putPercentiles(stage.name().toLowerCase(Locale.ROOT), stageNanos[stage.ordinal()], stageCounts[stage.ordinal()]);
+            }
+            report.print();
+        }
+    }
+
+    private int rowCount() {
+        return db.transactionDao().getSince(Long.MIN_VALUE).size();
+    }
+
+    private static List<Message> readCorpus() throws IOException {
+        String today = new SimpleDateFormat("dd/MM/yy", Locale.ROOT).format(new Date());
+        List<Message> messages = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ReplayBenchmark.class.getClassLoader().getResourceAsStream(CORPUS), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                String[] columns = line.split("\t", 6);
+                if (columns.length < 6) {
+                    throw new IOException("Malformed corpus line: " + line);
+                }
+                String text = columns[5].replace("\\n", "\n").replace("{TODAY}", today);
+                messages.add(new Message(columns[0], "saved".equals(columns[1]),
+                        "-".equals(columns[2]) ? null : columns[2], columns[3], columns[4], text));
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class SimpleTokenizerTest {
+
+    // IDs are line numbers: [PAD]=0, [UNK]=1, [CLS]=2, [SEP]=3, sent=4, rs=5, to=6, john=7
+    private static final String VOCAB = "[PAD]\n[UNK]\n[CLS]\n[SEP]\nsent\nrs\nto\njohn\n";
+
+    private static SimpleTokenizer tokenizer() throws IOException {
+        return new SimpleTokenizer(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void tokenizeLowercasesSplitsAndPads() throws IOException {
+        long[] ids = tokenizer().tokenize("  Sent RS 500\tTo JOHN ");
+
+        long[] expected = new long[SimpleTokenizer.MAX_LEN];
+        long[] prefix = {2, 4, 5, 1, 6, 7, 3};
+        System.arraycopy(prefix, 0, expected, 0, prefix.length);
+        assertArrayEquals(expected, ids);
+    }
+
+    @Test
+    public void tokenizeIntoBufferOverwritesPreviousContents() throws IOException {
+        SimpleTokenizer tokenizer = tokenizer();
+        LongBuffer buffer = LongBuffer.allocate(SimpleTokenizer.MAX_LEN);
+
+        tokenizer.tokenize("sent rs to john sent rs to john", buffer);
+        int count = tokenizer.tokenize("john", buffer);
+
+        assertEquals(3, count);
+        assertEquals(2, buffer.get(0));
+        assertEquals(7, buffer.get(1));
+        assertEquals(3, buffer.get(2));
+        for (int i = count; i < SimpleTokenizer.MAX_LEN; i++) {
+            assertEquals(0, buffer.get(i));
+        }
+    }
+
+    @Test
+    public void tokenizeTruncatesToMaxLength() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) text.append("rs ");
+        long[] ids = tokenizer().tokenize(text.toString());
+
+        assertEquals(2, ids[0]);
+        assertEquals(5, ids[SimpleTokenizer.MAX_LEN - 2]);
+        assertEquals(3, ids[SimpleTokenizer.MAX_LEN - 1]);
+    }
+
+    @Test
+    public void tokenizeIntoBufferDoesNotAllocateInSteadyState() throws IOException {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SimpleTokenizer tokenizer = tokenizer();
+        LongBuffer buffer = LongBuffer.allocate(SimpleTokenizer.MAX_LEN);
+        String text = "Sent Rs.500.00 From HDFC Bank A/C *1234 To JOHN DOE On 05/12/25";
+        for (int i = 0; i < 20_000; i++) tokenizer.tokenize(text, buffer); // Warm up the JIT
+
+        int calls = 100_000;
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) tokenizer.tokenize(text, buffer);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Leaves room for the measurement itself, but not for even one object per call
+        assertTrue("Allocated " + allocated + " bytes over " + calls + " calls", allocated < calls);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class SmsParserRegistryTest {
+
+    private static final String PACKAGE = "com.google.android.apps.messaging";
+
+    private static SmsParserRegistry registry(String templates) throws IOException {
+        return new SmsParserRegistry(new ByteArrayInputStream(templates.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void directionIsTrimmedAndCaseInsensitive() throws IOException {
+        SmsParserRegistry registry = registry("*\tTESTBK\t Credit \tRs\\.([\\d,.]+) credited\n"
+                + "*\tTESTBK\tDEBIT\tRs\\.([\\d,.]+) debited\n");
+
+        assertEquals(250.0, registry.parse(PACKAGE, "VM-TESTBK", "Rs.250.00 credited").amount, 0);
+        assertEquals(-1200.5, registry.parse(PACKAGE, "VM-TESTBK", "Rs.1,200.50 debited").amount, 0);
+    }
+
+    @Test
+    public void unknownDirectionIsRejected() {
+        for (String direction : new String[]{"debt", "", "refund", "debit credit"}) {
+            try {
+                registry("*\tTESTBK\t" + direction + "\tRs\\.([\\d,.]+)\n");
+                fail("Accepted direction '" + direction + "'");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("Malformed template line: "));
+            }
+        }
+    }
+
+    @Test
+    public void shippedTemplatesLoad() throws IOException {
+        // Unit tests run from the module directory
+        try (InputStream in = new FileInputStream("src/main/assets/sms_templates.txt")) {
+            assertTrue(new SmsParserRegistry(in).accepts(PACKAGE));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.expensemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.lifecycle.LiveData;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionPipelineTest {
+
+    private static final String PACKAGE = "com.google.android.apps.messaging";
+    private static final long T = 1_760_000_000_000L;
+
+    // Just enough of each DAO for the pipeline, kept in lists
+    private static class FakeTransactionDao implements TransactionDao {
+        final List<Transaction> rows = new ArrayList<>();
+
+        @Override
+        public LiveData<List<Transaction>> getAll() {
+            return null;
+        }
+
+        @Override
+        public int getCountByDescriptionAndDate(String description, long date) {
+            int count = 0;
+            for (Transaction row : rows) {
+                if (row.getDescription().equals(description) && row.getDate() == date) count++;
+            }
+            return count;
+        }
+
+        @Override
+        public List<Transaction> getSince(long since) {
+            List<Transaction> recent = new ArrayList<>();
+            for (Transaction row : rows) {
+                if (row.getDate() >= since) recent.add(row);
+            }
+            return recent;
+        }
+
+        @Override
+        public void insert(Transaction transaction) {
+            rows.add(transaction);
+        }
+
+        @Override
+        public void updateCategory(int id, String category, int iconResId) {
+        }
+
+        @Override
+        public void delete(Transaction transaction) {
+            rows.remove(transaction);
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+    }
+
+    private static class FakeMerchantCategoryDao implements MerchantCategoryDao {
+        final List<MerchantCategory> rows = new ArrayList<>();
+
+        @Override
+        public List<MerchantCategory> getAll() {
+            return rows;
+        }
+
+        @Override
+        public void upsert(MerchantCategory merchantCategory) {
+            rows.add(merchantCategory);
+        }
+    }
+
+    private FakeTransactionDao transactions;
+    private MerchantMemory merchantMemory;
+    private TransactionPipeline pipeline;
+    private int classifierCalls;
+
+    @Before
+    public void setUp() throws IOException {
+        transactions = new FakeTransactionDao();
+        merchantMemory = new MerchantMemory(new FakeMerchantCategoryDao());
+        pipeline = new TransactionPipeline(transactions, merchantMemory, new NearDuplicateIndex(60 * 1000),
+                Runnable::run, message -> { });
+        // Unit tests run from the module directory
+        try (InputStream in = new FileInputStream("src/main/assets/sms_templates.txt")) {
+            pipeline.setParserRegistry(new SmsParserRegistry(in));
+        }
+        pipeline.setClassifier(summary -> {
+            classifierCalls++;
+            return "Transfer";
+        });
+        pipeline.load();
+    }
+
+    @Test
+    public void correctedMerchantSkipsTheClassifier() {
+        pipeline.process(PACKAGE, "VM-HDFCBK", "Sent Rs.1,500.00\nFrom HDFC Bank A/C *1234\nTo JOHN DOE\nOn 05/12/25\nRef 512345678901", T);
+        assertEquals(1, classifierCalls);
+        Transaction first = transactions.rows.get(0);
+        assertEquals("Transfer", first.getCategory());
+
+        // What MainActivity does when the user picks a category for the row
+        merchantMemory.remember(first.getMerchant(), "Food");
+
+        // Same payee from a bank without a template, outside the near-duplicate window
+        pipeline.process(PACKAGE, "VM-AXISBK", "Rs 250 debited from A/c XX11.\nTo JOHN DOE\nOn 06/12/25 Ref 512345678902", T + 10 * 60 * 1000);
+
+        assertEquals(1, classifierCalls);
+        assertEquals(2, transactions.rows.size());
+        Transaction second = transactions.rows.get(1);
+        assertEquals("JOHN DOE", second.getMerchant());
+        assertEquals("Food", second.getCategory());
+    }
+
+    @Test
+    public void equalPaymentsToDifferentPayeesAreBothSaved() {
+        pipeline.process(PACKAGE, "VM-AXISBK", "Rs 100 debited from A/c XX11. To ALICE via UPI Ref 1", T);
+        pipeline.process(PACKAGE, "VM-KOTAKB", "Rs 100 debited from A/c XX22. To BOB via UPI Ref 2", T + 20_000);
+
+        assertEquals(2, transactions.rows.size());
+    }
+
+    @Test
+    public void amountDetailStaysOffTheDebugScreen() {
+        List<String> shown = new ArrayList<>();
+        TransactionPipeline quiet = new TransactionPipeline(transactions, merchantMemory, new NearDuplicateIndex(60 * 1000),
+                Runnable::run, shown::add);
+        quiet.setClassifier(summary -> "Transfer");
+        quiet.load();
+
+        quiet.process(PACKAGE, "VM-AXISBK", "Rs 250 debited from A/c XX11.\nTo JOHN\nOn 05/12/25", T);
+
+        assertEquals(1, transactions.rows.size());
+        for (String message : shown) {
+            assertFalse(message, message.contains("amount"));
+            assertFalse(message, message.startsWith("Expense found"));
+        }
+    }
+
+    @Test
+    public void genericCounterpartyStopsAtLineBreak() {
+        pipeline.process(PACKAGE, "VM-AXISBK", "Rs 250 debited from A/c XX11.\nTo JOHN\nOn 05/12/25", T);
+
+        assertEquals("JOHN", transactions.rows.get(0).getMerchant());
+    }
+
+    @Test
+    public void containsIgnoreCaseOnlySearchesTheWindow() {
+        String text = "Rs.500 DEBITED from A/c XX1234";
+
+        assertTrue(TransactionPipeline.containsIgnoreCase(text, 0, text.length(), "debited"));
+        assertTrue(TransactionPipeline.containsIgnoreCase(text, 7, 14, "debited"));
+        assertFalse(TransactionPipeline.containsIgnoreCase(text, 8, text.length(), "debited"));
+        assertFalse(TransactionPipeline.containsIgnoreCase(text, 0, 13, "debited"));
+        assertTrue(TransactionPipeline.containsIgnoreCase(text, 0, 2, "rs"));
+        assertFalse(TransactionPipeline.containsIgnoreCase(text, 0, 1, "rs"));
+    }
+
+    @Test
+    public void containsIgnoreCaseMatchesTheRupeeSign() {
+        assertTrue(TransactionPipeline.containsIgnoreCase("Paid ₹250", 0, 9, "₹"));
+    }
+}
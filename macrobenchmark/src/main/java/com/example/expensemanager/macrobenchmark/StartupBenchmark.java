@@ -0,0 +1,55 @@
+package com.example.expensemanager.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Collections;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Cold and warm start of MainActivity on the benchmark build of the app. Reports time to initial
+ * display and, through reportFullyDrawn(), time to full display with real data on screen.
+ *
+ * <p>Run with {@code ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest} on a physical device.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final String PACKAGE_NAME = "com.example.expensemanager";
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void startupCold() {
+        startup(StartupMode.COLD);
+    }
+
+    @Test
+    public void startupWarm() {
+        startup(StartupMode.WARM);
+    }
+
+    private void startup(StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                CompilationMode.DEFAULT,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}